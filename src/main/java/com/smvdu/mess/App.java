@@ -1,11 +1,14 @@
 package com.smvdu.mess;
 
 import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.service.AttendanceWriteQueue;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.stage.Stage;
 
 public class App extends Application {
@@ -16,6 +19,7 @@ public class App extends Application {
     public void start(Stage stage) throws Exception {
         primaryStage = stage;
         DatabaseConnection.initialize();
+        AttendanceWriteQueue.setFailureListener(App::attendanceNotSaved);
 
         Parent root = FXMLLoader.load(getClass().getResource("/views/login.fxml"));
         Scene scene = new Scene(root, 1200, 800);
@@ -28,6 +32,24 @@ public class App extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        AttendanceWriteQueue.flushNow(); // Don't lose queued attendance edits
+        DatabaseConnection.shutdown();
+    }
+
+    // Called on the attendance writer thread
+    private static void attendanceNotSaved(Exception cause) {
+        int pending = AttendanceWriteQueue.pendingCount();
+        Platform.runLater(() -> {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Attendance Not Saved");
+            alert.setContentText(pending + " attendance edit(s) could not be saved: " + cause.getMessage()
+                    + "\nThey will be retried with your next edit.");
+            alert.show();
+        });
+    }
+
     public static void setRoot(String fxml) throws Exception {
         Parent root = FXMLLoader.load(App.class.getResource("/views/" + fxml + ".fxml"));
         primaryStage.getScene().setRoot(root);
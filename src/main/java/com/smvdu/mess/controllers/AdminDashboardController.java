@@ -1,40 +1,131 @@
 package com.smvdu.mess.controllers;
 
-import java.sql.Connection;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.io.File;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Optional;
 
 import com.smvdu.mess.App;
-import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.service.BulkBillExport;
+import com.smvdu.mess.service.MessAggregateQuery.MessSummary;
+import com.smvdu.mess.service.MessStatsService;
+import com.smvdu.mess.service.StudentSearchService;
+import com.smvdu.mess.service.StudentSearchService.SearchHit;
 import com.smvdu.mess.utils.AdminSessionManager;
-import com.smvdu.mess.utils.MessUtils;
+import com.smvdu.mess.utils.BackgroundLoader;
 
+import javafx.animation.PauseTransition;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ChoiceDialog;
+import javafx.scene.control.Dialog;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.Separator;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.stage.DirectoryChooser;
+import javafx.util.Duration;
 
 public class AdminDashboardController {
     
     @FXML private Label adminNameLabel;
     @FXML private Label designationLabel;
     @FXML private FlowPane hostelsContainer;
+    @FXML private TextField globalSearchField;
+    @FXML private VBox searchResultsBox;
+    @FXML private Label searchStatusLabel;
+    @FXML private ListView<SearchHit> searchResultsList;
+    
+    private static final int SEARCH_LIMIT = 50;
     
     private String adminName;
     private String designation;
     
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(250));
+    private final BackgroundLoader.LatestLoad searchLoad = new BackgroundLoader.LatestLoad();
+    
     @FXML
     public void initialize() {
         System.out.println("AdminDashboardController initialized");
+        setupGlobalSearch();
+    }
+    
+    // ===== GLOBAL STUDENT SEARCH =====
+    
+    private void setupGlobalSearch() {
+        searchResultsList.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(SearchHit hit, boolean empty) {
+                super.updateItem(hit, empty);
+                if (empty || hit == null) {
+                    setText(null);
+                    return;
+                }
+                setText(hit.entryNumber + "  —  " + hit.name
+                        + "   |   Room " + (hit.roomNumber == null || hit.roomNumber.isEmpty() ? "-" : hit.roomNumber)
+                        + "   |   " + (hit.hostelName == null ? "No hostel" : hit.hostelName)
+                        + (hit.messName == null ? "" : " (" + hit.messName + ")")
+                        + (hit.active ? "" : "   [inactive]"));
+            }
+        });
+        
+        // Double-click opens the student's mess
+        searchResultsList.setOnMouseClicked(e -> {
+            SearchHit hit = searchResultsList.getSelectionModel().getSelectedItem();
+            if (e.getClickCount() == 2 && hit != null && hit.messName != null) {
+                openMessDetails(hit.messId, hit.messName);
+            }
+        });
+        
+        searchDebounce.setOnFinished(e -> runGlobalSearch(globalSearchField.getText()));
+        globalSearchField.textProperty().addListener((obs, o, n) -> searchDebounce.playFromStart());
+    }
+    
+    private void runGlobalSearch(String query) {
+        String q = query == null ? "" : query.trim();
+        
+        if (q.isEmpty()) {
+            searchLoad.cancel();
+            showSearchResults(false);
+            return;
+        }
+        
+        showSearchResults(true);
+        if (q.length() < StudentSearchService.MIN_QUERY_LENGTH) {
+            searchLoad.cancel();
+            searchResultsList.getItems().clear();
+            searchStatusLabel.setText("Type at least " + StudentSearchService.MIN_QUERY_LENGTH + " characters");
+            return;
+        }
+        
+        searchStatusLabel.setText("Searching...");
+        searchLoad.run(
+            () -> StudentSearchService.search(q, SEARCH_LIMIT),
+            hits -> {
+                searchResultsList.getItems().setAll(hits);
+                searchStatusLabel.setText(hits.isEmpty()
+                    ? "No students match \"" + q + "\""
+                    : hits.size() + (hits.size() == SEARCH_LIMIT ? "+" : "") + " match(es) — double-click to open the mess");
+            },
+            e -> searchStatusLabel.setText("Search failed: " + e.getMessage())
+        );
+    }
+    
+    private void showSearchResults(boolean show) {
+        searchResultsBox.setVisible(show);
+        searchResultsBox.setManaged(show);
     }
     
     public void setAdminInfo(String name, String designation) {
@@ -53,74 +144,47 @@ public class AdminDashboardController {
         System.out.println("Loading messes...");
         hostelsContainer.getChildren().clear();
         
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            
-            LocalDate now = LocalDate.now();
-            int currentMonth = now.getMonthValue();
-            int currentYear = now.getYear();
-            
-            // Get rates from settings using utility
-            double perDayRate = MessUtils.getSetting("per_day_rate", 120.0);
-            double gstPercent = MessUtils.getSetting("gst_percent", 5.0);
-            
-            // Get all messes
-            String messQuery = "SELECT id, name, code FROM messes ORDER BY name";
-            ResultSet rs = conn.createStatement().executeQuery(messQuery);
-            
-            int messCount = 0;
-            while (rs.next()) {
-                int messId = rs.getInt("id");
-                String messName = rs.getString("name");
-                String messCode = rs.getString("code");
-                
-                // Get all hostel IDs for this mess using utility
-                List<Integer> hostelIds = MessUtils.getHostelIdsForMess(messId);
-                
-                // Skip if no hostels assigned to this mess
-                if (hostelIds.isEmpty()) continue;
-                
-                // Get operating days using centralized utility
-                int operatingDays = MessUtils.getOperatingDays(messId, currentMonth, currentYear);
-                
-                // Count active students using utility
-                int activeStudents = MessUtils.getActiveStudentCount(hostelIds);
-                
-                // Calculate total absent days using utility
-                int totalAbsentDays = MessUtils.getTotalAbsentDays(hostelIds, currentMonth, currentYear);
-                
-                // Calculate bill
-                int totalPossibleDays = activeStudents * operatingDays;
-                int netMessDays = totalPossibleDays - totalAbsentDays;
-                if (netMessDays < 0) netMessDays = 0;
-                
-                double subtotal = netMessDays * perDayRate;
-                double gst = subtotal * (gstPercent / 100);
-                
-                // ✅ FIX: Get fine amount from bill configuration
-                double fineAmount = MessUtils.getFineAmount(messId, currentMonth, currentYear);
-                
-                // ✅ FIX: Include fine in total
-                double totalBill = subtotal + gst + fineAmount;
-                
-                // Create card with calculated bill
-                messCount++;
-                VBox messCard = createMessCard(messId, messName, messCode, activeStudents, totalBill);
-                hostelsContainer.getChildren().add(messCard);
-            }
-            
-            System.out.println("Loaded " + messCount + " messes");
-            
-            if (messCount == 0) {
-                Label noDataLabel = new Label("No messes found in database");
-                noDataLabel.setStyle("-fx-font-size: 16px; -fx-text-fill: #999;");
-                hostelsContainer.getChildren().add(noDataLabel);
+        // Placeholder until the background load finishes
+        Label loadingLabel = new Label("Loading messes...");
+        loadingLabel.setStyle("-fx-font-size: 16px; -fx-text-fill: #999;");
+        hostelsContainer.getChildren().add(loadingLabel);
+        
+        LocalDate now = LocalDate.now();
+        int currentMonth = now.getMonthValue();
+        int currentYear = now.getYear();
+        
+        // Every mess with its bill figures in one query
+        BackgroundLoader.run(
+            () -> MessStatsService.getAllStats(currentMonth, currentYear),
+            this::showMessCards,
+            e -> {
+                hostelsContainer.getChildren().clear();
+                System.err.println("SQL Error: " + e.getMessage());
+                showAlert("Error", "Failed to load messes: " + e.getMessage(), Alert.AlertType.ERROR);
             }
+        );
+    }
+    
+    private void showMessCards(List<MessSummary> messes) {
+        hostelsContainer.getChildren().clear();
+        
+        int messCount = 0;
+        for (MessSummary mess : messes) {
+            // Skip if no hostels assigned to this mess
+            if (mess.stats.getHostelCount() == 0) continue;
             
-        } catch (SQLException e) {
-            e.printStackTrace();
-            System.err.println("SQL Error: " + e.getMessage());
-            showAlert("Error", "Failed to load messes: " + e.getMessage(), Alert.AlertType.ERROR);
+            // Create card with calculated bill (✅ includes fine and GST)
+            messCount++;
+            VBox messCard = createMessCard(mess.messId, mess.name, mess.code,
+                                           mess.stats.getActiveStudents(),
+                                           mess.stats.getEstimatedBill());
+            hostelsContainer.getChildren().add(messCard);
+        }
+        
+        if (messCount == 0) {
+            Label noDataLabel = new Label("No messes found in database");
+            noDataLabel.setStyle("-fx-font-size: 16px; -fx-text-fill: #999;");
+            hostelsContainer.getChildren().add(noDataLabel);
         }
     }
     
@@ -211,6 +275,93 @@ public class AdminDashboardController {
         }
     }
     
+    @FXML
+    private void openBillHistory() {
+        try {
+            FXMLLoader loader = new FXMLLoader(
+                getClass().getResource("/views/bill_history.fxml")
+            );
+            Parent root = loader.load();
+            
+            BillHistoryController controller = loader.getController();
+            controller.setScope(0, "All messes");
+            
+            App.getPrimaryStage().getScene().setRoot(root);
+            
+        } catch (Exception e) {
+            e.printStackTrace();
+            showAlert("Error", "Failed to open bill history: " + e.getMessage(), Alert.AlertType.ERROR);
+        }
+    }
+    
+    @FXML
+    private void exportAllBills() {
+        // Current or previous month
+        LocalDate current = LocalDate.now().withDayOfMonth(1);
+        DateTimeFormatter monthFormat = DateTimeFormatter.ofPattern("MMMM yyyy");
+        String currentLabel = current.format(monthFormat);
+        String previousLabel = current.minusMonths(1).format(monthFormat);
+        
+        ChoiceDialog<String> monthDialog = new ChoiceDialog<>(currentLabel, currentLabel, previousLabel);
+        monthDialog.setTitle("Export All Bills");
+        monthDialog.setHeaderText("Export the bill PDF of every mess");
+        monthDialog.setContentText("Month:");
+        Optional<String> choice = monthDialog.showAndWait();
+        if (choice.isEmpty()) return;
+        LocalDate period = choice.get().equals(currentLabel) ? current : current.minusMonths(1);
+        
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Choose a folder for the bills");
+        File outputDir = chooser.showDialog(App.getPrimaryStage());
+        if (outputDir == null) return;
+        
+        Alert mergeAlert = new Alert(Alert.AlertType.CONFIRMATION,
+            "Also merge all bills into one PDF?", ButtonType.YES, ButtonType.NO);
+        mergeAlert.setTitle("Export All Bills");
+        mergeAlert.setHeaderText(null);
+        Optional<ButtonType> mergeChoice = mergeAlert.showAndWait();
+        if (mergeChoice.isEmpty()) return;
+        boolean merge = mergeChoice.get() == ButtonType.YES;
+        
+        // ===== PROGRESS DIALOG =====
+        ProgressBar progressBar = new ProgressBar(0);
+        progressBar.setMaxWidth(Double.MAX_VALUE);
+        TextArea logArea = new TextArea();
+        logArea.setEditable(false);
+        logArea.setPrefSize(520, 240);
+        
+        BulkBillExport export = new BulkBillExport(
+            period.getMonthValue(), period.getYear(), outputDir, merge,
+            AdminSessionManager.getAdminName(), line -> logArea.appendText(line + "\n"));
+        progressBar.progressProperty().bind(export.progressProperty());
+        
+        Dialog<Void> progressDialog = new Dialog<>();
+        progressDialog.setTitle("Exporting Bills — " + choice.get());
+        progressDialog.getDialogPane().setContent(new VBox(10, progressBar, logArea));
+        progressDialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        progressDialog.setOnHidden(e -> {
+            if (export.isRunning()) export.cancel();
+        });
+        
+        export.setOnSucceeded(e -> {
+            BulkBillExport.Result result = export.getValue();
+            logArea.appendText("Saved to " + outputDir.getAbsolutePath() + "\n");
+            if (result.failed > 0) {
+                showAlert("Export Finished",
+                    result.failed + " bill(s) could not be written. See the log for details.",
+                    Alert.AlertType.WARNING);
+            }
+        });
+        export.setOnFailed(e -> {
+            Throwable error = export.getException();
+            error.printStackTrace();
+            logArea.appendText("ERROR: " + error.getMessage() + "\n");
+        });
+        
+        BackgroundLoader.start(export);
+        progressDialog.show();
+    }
+    
     @FXML
     private void handleLogout() {
         try {
@@ -1,17 +1,15 @@
 package com.smvdu.mess.controllers;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.time.LocalDate;
-import java.util.List;
 
 import com.smvdu.mess.App;
-import com.smvdu.mess.database.DatabaseConnection;
 import com.smvdu.mess.models.Student;
+import com.smvdu.mess.service.MessStats;
+import com.smvdu.mess.service.MessStatsService;
+import com.smvdu.mess.service.StudentPageQuery;
 import com.smvdu.mess.utils.AdminSessionManager;
-import com.smvdu.mess.utils.MessUtils;
+import com.smvdu.mess.utils.BackgroundLoader;
+import com.smvdu.mess.utils.PagedTableLoader;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -42,6 +40,9 @@ public class AdminHostelViewController {
     
     private int messId;
     private ObservableList<Student> studentsList = FXCollections.observableArrayList();
+    private PagedTableLoader<Student> pager;
+    
+    private static final int PAGE_SIZE = 200;
     
     @FXML
     public void initialize() {
@@ -73,6 +74,9 @@ public class AdminHostelViewController {
         absentDaysCol.setCellValueFactory(new PropertyValueFactory<>("absentDays"));
         
         studentsTable.setItems(studentsList);
+        
+        pager = new PagedTableLoader<>(studentsTable, studentsList, Student::getEntryNumber, PAGE_SIZE);
+        pager.setOnError(e -> studentsTable.setPlaceholder(new Label("Failed to load students")));
     }
     
     private void loadData() {
@@ -80,97 +84,40 @@ public class AdminHostelViewController {
         int currentMonth = now.getMonthValue();
         int currentYear = now.getYear();
         
-        try {
-            // Get operating days using centralized utility
-            int operatingDays = MessUtils.getOperatingDays(messId, currentMonth, currentYear);
-            
-            // Get all hostel IDs for this mess using utility
-            List<Integer> hostelIds = MessUtils.getHostelIdsForMess(messId);
-            String hostelIdsStr = MessUtils.hostelIdsToString(hostelIds);
-            
-            // Get statistics using utilities
-            int totalStudents = MessUtils.getTotalStudentCount(hostelIds);
-            int activeStudents = MessUtils.getActiveStudentCount(hostelIds);
-            int totalAbsentDays = MessUtils.getTotalAbsentDays(hostelIds, currentMonth, currentYear);
-            
-            // Calculate totals
-            int totalPossibleDays = activeStudents * operatingDays;
-            int netMessDays = totalPossibleDays - totalAbsentDays;
-            if (netMessDays < 0) netMessDays = 0;
-            
-            // Get rates using utility
-            double perDayRate = MessUtils.getSetting("per_day_rate", 120.0);
-            double gstPercent = MessUtils.getSetting("gst_percent", 5.0);
-            
-            // ✅ FIX: Get fine amount from bill configuration
-            double fineAmount = MessUtils.getFineAmount(messId, currentMonth, currentYear);
-            
-            double subtotal = netMessDays * perDayRate;
-            double gst = subtotal * (gstPercent / 100);
-            
-            // ✅ FIX: Include fine in total
-            double total = subtotal + gst + fineAmount;
-            
-            // Update UI
-            totalStudentsLabel.setText(String.valueOf(totalStudents));
-            activeStudentsLabel.setText(String.valueOf(activeStudents));
-            daysInMonthLabel.setText(String.valueOf(operatingDays));
-            totalMessDaysLabel.setText(String.valueOf(netMessDays));
-            estimatedBillLabel.setText(String.format("₹%.2f", total));
-            
-            // ✅ FIX: Display fine amount in the fine label
-            monthlyFineLabel.setText(String.format("₹%.2f", fineAmount));
-            
-            // Load students
-            loadStudents(hostelIdsStr, operatingDays);
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        // Placeholders until the background loads finish
+        totalStudentsLabel.setText("…");
+        activeStudentsLabel.setText("…");
+        daysInMonthLabel.setText("…");
+        totalMessDaysLabel.setText("…");
+        estimatedBillLabel.setText("Loading…");
+        monthlyFineLabel.setText("…");
+        studentsTable.setPlaceholder(new Label("Loading students..."));
+        
+        // All figures for this mess and month (cached, one query on a miss)
+        BackgroundLoader.run(
+            () -> MessStatsService.getStats(messId, currentMonth, currentYear),
+            this::showStats,
+            e -> estimatedBillLabel.setText("Error")
+        );
     }
     
-    private void loadStudents(String hostelIds, int operatingDays) {
-        studentsList.clear();
-        LocalDate now = LocalDate.now();
+    private void showStats(MessStats stats) {
+        // Update UI
+        totalStudentsLabel.setText(String.valueOf(stats.getTotalStudents()));
+        activeStudentsLabel.setText(String.valueOf(stats.getActiveStudents()));
+        daysInMonthLabel.setText(String.valueOf(stats.getOperatingDays()));
+        totalMessDaysLabel.setText(String.valueOf(stats.getNetMessDays()));
+        estimatedBillLabel.setText(String.format("₹%.2f", stats.getEstimatedBill()));  // ✅ Includes fine
         
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            
-            String studentQuery = "SELECT s.*, " +
-                                 "COALESCE(sa.mess_days, ?) as mess_days, " +
-                                 "COALESCE(sa.absent_days, 0) as absent_days " +
-                                 "FROM students s " +
-                                 "LEFT JOIN student_attendance sa ON s.id = sa.student_id " +
-                                 "AND sa.month = ? AND sa.year = ? " +
-                                 "WHERE s.hostel_id IN (" + hostelIds + ") AND s.is_active = 1 " +
-                                 "ORDER BY s.entry_number";
-            
-            PreparedStatement pstmt = conn.prepareStatement(studentQuery);
-            pstmt.setInt(1, operatingDays);
-            pstmt.setInt(2, now.getMonthValue());
-            pstmt.setInt(3, now.getYear());
-            
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                Student student = new Student(
-                    rs.getInt("id"),
-                    rs.getString("entry_number"),
-                    rs.getString("name"),
-                    rs.getInt("hostel_id"),
-                    rs.getString("room_number"),
-                    rs.getString("phone"),
-                    rs.getString("email"),
-                    rs.getInt("is_active") == 1
-                );
-                student.setMessDays(rs.getInt("mess_days"));
-                student.setAbsentDays(rs.getInt("absent_days"));
-                studentsList.add(student);
-            }
-            
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        // ✅ FIX: Display fine amount in the fine label
+        monthlyFineLabel.setText(String.format("₹%.2f", stats.getFineAmount()));
+        
+        // Students are fetched a page at a time as the table scrolls
+        int operatingDays = stats.getOperatingDays();
+        LocalDate now = LocalDate.now();
+        studentsTable.setPlaceholder(new Label("No students found"));
+        pager.reset((after, limit) -> StudentPageQuery.loadPage(
+            messId, now.getMonthValue(), now.getYear(), operatingDays, after, limit));
     }
     
     @FXML
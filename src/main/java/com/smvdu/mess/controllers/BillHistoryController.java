@@ -0,0 +1,123 @@
+package com.smvdu.mess.controllers;
+
+import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
+import com.smvdu.mess.App;
+import com.smvdu.mess.models.Bill;
+import com.smvdu.mess.service.BillLedgerService;
+import com.smvdu.mess.utils.AdminSessionManager;
+import com.smvdu.mess.utils.PagedTableLoader;
+
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+/**
+ * Finalized bills read straight from the ledger, a page at a time.
+ * Nothing here is recomputed from attendance.
+ */
+public class BillHistoryController {
+
+    @FXML private Label scopeLabel;
+    @FXML private Label countLabel;
+    @FXML private TableView<Bill> billsTable;
+    @FXML private TableColumn<Bill, String> periodCol;
+    @FXML private TableColumn<Bill, String> messCol;
+    @FXML private TableColumn<Bill, String> studentsCol;
+    @FXML private TableColumn<Bill, String> daysCol;
+    @FXML private TableColumn<Bill, String> messDaysCol;
+    @FXML private TableColumn<Bill, String> rateCol;
+    @FXML private TableColumn<Bill, String> gstCol;
+    @FXML private TableColumn<Bill, String> fineCol;
+    @FXML private TableColumn<Bill, String> totalCol;
+    @FXML private TableColumn<Bill, String> finalizedCol;
+
+    private static final int PAGE_SIZE = 50;
+    private static final DateTimeFormatter FINALIZED_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm");
+
+    private final ObservableList<Bill> billsList = FXCollections.observableArrayList();
+    private PagedTableLoader<Bill> pager;
+    private int messId;
+
+    @FXML
+    public void initialize() {
+        periodCol.setCellValueFactory(c -> text(
+            Month.of(c.getValue().getMonth()).getDisplayName(TextStyle.SHORT, Locale.ENGLISH)
+                + " " + c.getValue().getYear()));
+        messCol.setCellValueFactory(c -> text(c.getValue().getMessName()));
+        studentsCol.setCellValueFactory(c -> text(String.valueOf(c.getValue().getTotalStudents())));
+        daysCol.setCellValueFactory(c -> text(String.valueOf(c.getValue().getOperatingDays())));
+        messDaysCol.setCellValueFactory(c -> text(String.valueOf(c.getValue().getTotalMessDays())));
+        rateCol.setCellValueFactory(c -> text(String.format("₹%.2f", c.getValue().getPerDayRate())));
+        gstCol.setCellValueFactory(c -> text(String.format("₹%.2f", c.getValue().getGstAmount())));
+        fineCol.setCellValueFactory(c -> text(String.format("₹%.2f", c.getValue().getFineAmount())));
+        totalCol.setCellValueFactory(c -> text(String.format("₹%.2f", c.getValue().getTotalAmount())));
+        finalizedCol.setCellValueFactory(c -> text(c.getValue().getGeneratedAt() == null
+            ? "-" : c.getValue().getGeneratedAt().format(FINALIZED_FORMAT)));
+
+        billsTable.setItems(billsList);
+        billsTable.setPlaceholder(new Label("No finalized bills yet"));
+
+        pager = new PagedTableLoader<>(billsTable, billsList, bill -> String.valueOf(bill.getId()), PAGE_SIZE);
+        pager.setOnPageLoaded(this::updateCount);
+        pager.setOnError(e -> billsTable.setPlaceholder(new Label("Failed to load bills")));
+    }
+
+    /**
+     * Show the bills of one mess, or of every mess when messId is 0
+     */
+    public void setScope(int messId, String title) {
+        this.messId = messId;
+        scopeLabel.setText(title);
+        countLabel.setText("Loading…");
+
+        pager.reset((after, limit) -> BillLedgerService.listBills(messId, after, limit));
+    }
+
+    private void updateCount() {
+        countLabel.setText(billsList.size() + (pager.isFullyLoaded() ? "" : "+") + " finalized bill(s)");
+    }
+
+    private static SimpleStringProperty text(String value) {
+        return new SimpleStringProperty(value == null ? "" : value);
+    }
+
+    @FXML
+    private void goBack() {
+        try {
+            if (messId > 0) {
+                App.setRoot("billing");
+                return;
+            }
+
+            FXMLLoader loader = new FXMLLoader(
+                getClass().getResource("/views/admin_dashboard.fxml")
+            );
+            Parent root = loader.load();
+
+            AdminDashboardController controller = loader.getController();
+
+            // Restore admin info from session
+            String adminName = AdminSessionManager.getAdminName();
+            String designation = AdminSessionManager.getDesignation();
+
+            if (adminName != null && designation != null) {
+                controller.setAdminInfo(adminName, designation);
+            }
+
+            App.getPrimaryStage().getScene().setRoot(root);
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
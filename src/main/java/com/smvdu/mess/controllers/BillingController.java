@@ -1,32 +1,46 @@
 package com.smvdu.mess.controllers;
 
 import java.io.File;
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.Month;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
-import java.util.List;
 import java.util.Locale;
 
 import com.smvdu.mess.App;
 import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.models.Bill;
+import com.smvdu.mess.service.BillCalculationService;
+import com.smvdu.mess.service.BillLedgerService;
+import com.smvdu.mess.service.MessStats;
+import com.smvdu.mess.service.MessStatsService;
+import com.smvdu.mess.service.RangeBillingEngine;
+import com.smvdu.mess.utils.BackgroundLoader;
 import com.smvdu.mess.utils.BillPDFGenerator;
 import com.smvdu.mess.utils.MessUtils;
 import com.smvdu.mess.utils.SessionManager;
 
 import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
 import javafx.print.PageLayout;
 import javafx.print.PrinterJob;
+import javafx.scene.Parent;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.scene.transform.Scale;
 import javafx.stage.FileChooser;
@@ -59,40 +73,38 @@ public class BillingController {
     @FXML private Button updateRateButton;
     @FXML private TextField fineField;
     @FXML private Label fineAmountLabel;
+    @FXML private Button finalizeButton;
+    @FXML private VBox monthLinesBox;
+    @FXML private VBox monthLinesList;
     
     private int hostelId;
     private int messId;
     private String hostelCode = "";
+    private String messName = "";
     private double perDayRate = 120.0;
     private double gstPercent = 5.0;
     private double fineAmount = 0;
     
+    // Month/year can be flipped quickly; only the latest load may update the screen
+    private final BackgroundLoader.LatestLoad configLoad = new BackgroundLoader.LatestLoad();
+    private final BackgroundLoader.LatestLoad billLoad = new BackgroundLoader.LatestLoad();
+    private boolean applyingConfig = false;
+    
+    // The bill on screen; export and print use it as is
+    private Bill currentBill;
+    
+    // Hostel details and rates, loaded once in the background
+    private static class BillingHeader {
+        int messId;
+        String hostelCode;
+        String messName;
+        double perDayRate;
+        double gstPercent;
+    }
+    
     @FXML
     public void initialize() {
         hostelId = SessionManager.getCurrentHostelId();
-        messId = MessUtils.getMessIdForHostel(hostelId);
-        
-        String hostelName = SessionManager.getCurrentUser().getHostelName();
-        
-        // Get hostel code and MESS NAME
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement pstmt = conn.prepareStatement(
-                "SELECT code, mess_name FROM hostels WHERE id = ?"
-            );
-            pstmt.setInt(1, hostelId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                hostelCode = rs.getString("code");
-                hostelCodeLabel.setText(hostelCode);
-                
-                // Display MESS NAME instead of hostel name in bills
-                String messName = rs.getString("mess_name");
-                hostelNameLabel.setText(messName);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
         
         preparedByLabel.setText(SessionManager.getCurrentUser().getName());
         
@@ -112,37 +124,83 @@ public class BillingController {
         monthCombo.setValue(now.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH));
         yearCombo.setValue(currentYear);
         
-        // ✅ Load saved configuration or use defaults
-        loadBillConfiguration(now.getMonthValue(), currentYear);
+        totalAmountLabel.setText("Loading…");
         
-        loadSettings();
-        rateField.setText(String.valueOf(perDayRate));
-        gstField.setText(String.valueOf(gstPercent));
+        BackgroundLoader.run(
+            this::loadHeader,
+            header -> {
+                messId = header.messId;
+                hostelCode = header.hostelCode;
+                hostelCodeLabel.setText(hostelCode);
+                
+                // Display MESS NAME instead of hostel name in bills
+                if (header.messName != null) {
+                    messName = header.messName;
+                    hostelNameLabel.setText(messName);
+                }
+                
+                perDayRate = header.perDayRate;
+                gstPercent = header.gstPercent;
+                rateField.setText(String.valueOf(perDayRate));
+                gstField.setText(String.valueOf(gstPercent));
+                
+                // Only react to selections once the mess is known
+                monthCombo.setOnAction(e -> onMonthYearChange());
+                yearCombo.setOnAction(e -> onMonthYearChange());
+                startDatePicker.setOnAction(e -> { if (!applyingConfig) generateBill(); });
+                endDatePicker.setOnAction(e -> { if (!applyingConfig) generateBill(); });
+                
+                // ✅ Load saved configuration or use defaults, then generate
+                onMonthYearChange();
+            },
+            e -> showAlert("Error", "Failed to load billing details: " + e.getMessage(), Alert.AlertType.ERROR)
+        );
+    }
+    
+    // Runs on a background thread
+    private BillingHeader loadHeader() throws SQLException {
+        BillingHeader header = new BillingHeader();
+        header.messId = MessUtils.getMessIdForHostel(hostelId);
+        header.hostelCode = "";
         
-        monthCombo.setOnAction(e -> onMonthYearChange());
-        yearCombo.setOnAction(e -> onMonthYearChange());
-        startDatePicker.setOnAction(e -> generateBill());
-        endDatePicker.setOnAction(e -> generateBill());
+        // Get hostel code and MESS NAME
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement pstmt = conn.prepare(
+                "SELECT code, mess_name FROM hostels WHERE id = ?"
+            );
+            pstmt.setInt(1, hostelId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    header.hostelCode = rs.getString("code");
+                    header.messName = rs.getString("mess_name");
+                }
+            }
+        }
         
-        generateBill();
+        header.perDayRate = MessUtils.getSetting("per_day_rate", 120.0);
+        header.gstPercent = MessUtils.getSetting("gst_percent", 5.0);
+        return header;
     }
     
-    // ✅ NEW METHOD: Load saved bill configuration
-    private void loadBillConfiguration(int month, int year) {
-        MessUtils.BillConfig config = MessUtils.getBillConfig(messId, month, year);
-        
-        if (config != null) {
-            // Load saved dates
-            startDatePicker.setValue(config.startDate);
-            endDatePicker.setValue(config.endDate);
-            fineField.setText(String.valueOf(config.fineAmount));
-        } else {
-            // Use default dates (full month)
-            LocalDate firstDay = LocalDate.of(year, month, 1);
-            LocalDate lastDay = firstDay.withDayOfMonth(firstDay.lengthOfMonth());
-            startDatePicker.setValue(firstDay);
-            endDatePicker.setValue(lastDay);
-            fineField.setText("0");
+    // ✅ Apply saved bill configuration (or defaults) to the date pickers and fine
+    private void applyBillConfiguration(MessUtils.BillConfig config, int month, int year) {
+        applyingConfig = true;
+        try {
+            if (config != null) {
+                // Load saved dates
+                startDatePicker.setValue(config.startDate);
+                endDatePicker.setValue(config.endDate);
+                fineField.setText(String.valueOf(config.fineAmount));
+            } else {
+                // Use default dates (full month)
+                LocalDate firstDay = LocalDate.of(year, month, 1);
+                LocalDate lastDay = firstDay.withDayOfMonth(firstDay.lengthOfMonth());
+                startDatePicker.setValue(firstDay);
+                endDatePicker.setValue(lastDay);
+                fineField.setText("0");
+            }
+        } finally {
+            applyingConfig = false;
         }
     }
     
@@ -150,15 +208,20 @@ public class BillingController {
         int selectedMonth = monthCombo.getSelectionModel().getSelectedIndex() + 1;
         int selectedYear = yearCombo.getValue();
         
-        // ✅ Load saved configuration for this month/year
-        loadBillConfiguration(selectedMonth, selectedYear);
+        // A bill for the previous selection is now stale
+        billLoad.cancel();
+        currentBill = null;
+        totalAmountLabel.setText("Loading…");
         
-        generateBill();
-    }
-    
-    private void loadSettings() {
-        perDayRate = MessUtils.getSetting("per_day_rate", 120.0);
-        gstPercent = MessUtils.getSetting("gst_percent", 5.0);
+        // ✅ Load saved configuration for this month/year
+        configLoad.run(
+            () -> MessUtils.getBillConfig(messId, selectedMonth, selectedYear),
+            config -> {
+                applyBillConfiguration(config, selectedMonth, selectedYear);
+                generateBill();
+            },
+            e -> showAlert("Error", "Failed to load bill configuration: " + e.getMessage(), Alert.AlertType.ERROR)
+        );
     }
     
     @FXML
@@ -172,18 +235,22 @@ public class BillingController {
                 return;
             }
             
-            boolean rateUpdated = MessUtils.updateSetting("per_day_rate", String.valueOf(newRate));
-            boolean gstUpdated = MessUtils.updateSetting("gst_percent", String.valueOf(newGST));
-            
-            if (rateUpdated && gstUpdated) {
-                perDayRate = newRate;
-                gstPercent = newGST;
-                
-                showAlert("Success", "Rate and GST updated successfully!", Alert.AlertType.INFORMATION);
-                generateBill();
-            } else {
-                showAlert("Error", "Failed to update settings", Alert.AlertType.ERROR);
-            }
+            BackgroundLoader.run(
+                () -> MessUtils.updateSetting("per_day_rate", String.valueOf(newRate))
+                        & MessUtils.updateSetting("gst_percent", String.valueOf(newGST)),
+                updated -> {
+                    if (updated) {
+                        perDayRate = newRate;
+                        gstPercent = newGST;
+                        
+                        showAlert("Success", "Rate and GST updated successfully!", Alert.AlertType.INFORMATION);
+                        generateBill();
+                    } else {
+                        showAlert("Error", "Failed to update settings", Alert.AlertType.ERROR);
+                    }
+                },
+                e -> showAlert("Error", "Failed to update settings", Alert.AlertType.ERROR)
+            );
             
         } catch (NumberFormatException e) {
             showAlert("Error", "Please enter valid numbers for rate and GST", Alert.AlertType.ERROR);
@@ -211,76 +278,204 @@ public class BillingController {
             return;
         }
         
+        // Handle fine amount
+        try {
+            String fineText = fineField.getText();
+            fineAmount = (fineText == null || fineText.trim().isEmpty()) 
+                ? 0 
+                : Double.parseDouble(fineText.trim());
+        } catch (NumberFormatException e) {
+            fineAmount = 0;
+        }
+        
         int daysInRange = (int) (endDate.toEpochDay() - startDate.toEpochDay() + 1);
         
         int selectedMonth = monthCombo.getSelectionModel().getSelectedIndex() + 1;
         int selectedYear = yearCombo.getValue();
         
+        generatedDateLabel.setText(LocalDate.now().format(DateTimeFormatter.ofPattern("dd MMMM yyyy")));
+        currentBill = null;
+        
+        // A period across several months is billed month by month, each
+        // with its own saved fine, so the single fine field doesn't apply
+        boolean range = !YearMonth.from(startDate).equals(YearMonth.from(endDate));
+        fineField.setDisable(range);
+        fineField.setTooltip(range ? new Tooltip("A range bill uses each month's saved fine") : null);
+        if (range) {
+            generateRangeBill(startDate, endDate, perDayRate, gstPercent);
+            return;
+        }
+        showMonthLines(null);
+        
+        double billRate = perDayRate;
+        double billGst = gstPercent;
+        double billFine = fineAmount;
+        String billMessName = messName;
+        String billCode = hostelCode;
+        
+        billLoad.run(
+            () -> {
+                // A finalized month is shown exactly as it was snapshotted
+                Bill finalized = BillLedgerService.getFinalized(messId, selectedMonth, selectedYear);
+                if (finalized != null) {
+                    return BillCalculationService.relabel(finalized, billMessName, billCode, startDate, endDate);
+                }
+                
+                // Student and attendance figures for this mess and month (cached)
+                MessStats stats = MessStatsService.getStats(messId, selectedMonth, selectedYear);
+                if (stats.getHostelCount() == 0) {
+                    return null;
+                }
+                
+                // ✅ Save bill configuration (dates, operating days, and fine)
+                MessUtils.saveBillConfig(messId, selectedMonth, selectedYear, 
+                                        startDate, endDate, daysInRange, billFine);
+                return BillCalculationService.calculate(stats, billMessName, billCode, startDate, endDate,
+                                                        daysInRange, billRate, billGst, billFine);
+            },
+            bill -> {
+                if (bill == null) {
+                    showAlert("Error", "No hostels found for this mess", Alert.AlertType.ERROR);
+                    return;
+                }
+                
+                finalizeButton.setDisable(bill.isFinalized());
+                finalizeButton.setText(bill.isFinalized() ? "✔ Finalized" : "✔ Finalize Bill");
+                showBill(bill);
+            },
+            e -> showAlert("Error", "Failed to generate bill: " + e.getMessage(), Alert.AlertType.ERROR)
+        );
+    }
+    
+    private void generateRangeBill(LocalDate startDate, LocalDate endDate, double billRate, double billGst) {
+        String billMessName = messName;
+        String billCode = hostelCode;
+        
+        billLoad.run(
+            () -> RangeBillingEngine.calculate(messId, startDate, endDate, billRate, billGst),
+            range -> {
+                // Only single months go into the ledger
+                finalizeButton.setDisable(true);
+                finalizeButton.setText("✔ Finalize Bill");
+                
+                showBill(BillCalculationService.calculate(range, billMessName, billCode));
+                showMonthLines(range);
+            },
+            e -> showAlert("Error", "Failed to generate bill: " + e.getMessage(), Alert.AlertType.ERROR)
+        );
+    }
+    
+    // Fill the preview from a bill; nothing on screen is read back
+    private void showBill(Bill bill) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
-        billPeriodLabel.setText(startDate.format(formatter) + " to " + endDate.format(formatter));
+        billPeriodLabel.setText(bill.getPeriodStart().format(formatter) + " to " + bill.getPeriodEnd().format(formatter));
         
-        generatedDateLabel.setText(LocalDate.now().format(DateTimeFormatter.ofPattern("dd MMMM yyyy")));
+        daysInMonthLabel.setText(String.valueOf(bill.getOperatingDays()));
+        totalStudentsLabel.setText(String.valueOf(bill.getTotalStudents()));
+        totalStudentDaysLabel.setText(String.valueOf(bill.getTotalStudentDays()));
+        totalAbsentDaysLabel.setText(String.valueOf(bill.getTotalAbsentDays()));
+        totalMessDaysLabel.setText(String.valueOf(bill.getTotalMessDays()));
+        perDayRateLabel.setText(bill.getPerDayRate() != null
+            ? String.format("₹%.2f", bill.getPerDayRate()) : "Varies by month");
+        gstPercentLabel.setText(bill.getGstPercent() != null
+            ? String.format("%.1f%%", bill.getGstPercent()) : "varies");
+        subtotalLabel.setText(String.format("₹%.2f", bill.getSubtotal()));
+        gstAmountLabel.setText(String.format("₹%.2f", bill.getGstAmount()));
+        fineAmountLabel.setText(String.format("₹%.2f", bill.getFineAmount()));
+        totalAmountLabel.setText(String.format("₹%.2f", bill.getTotalAmount()));
         
-        try {
-            // Get all hostel IDs for this mess
-            List<Integer> hostelIds = MessUtils.getHostelIdsForMess(messId);
-            
-            if (hostelIds.isEmpty()) {
-                showAlert("Error", "No hostels found for this mess", Alert.AlertType.ERROR);
-                return;
-            }
+        currentBill = bill;
+    }
+    
+    // Per-month lines of a range bill; null hides the breakdown
+    private void showMonthLines(RangeBillingEngine.RangeBill bill) {
+        monthLinesList.getChildren().clear();
+        monthLinesBox.setVisible(bill != null);
+        monthLinesBox.setManaged(bill != null);
+        if (bill == null) return;
+        
+        DateTimeFormatter day = DateTimeFormatter.ofPattern("dd");
+        for (RangeBillingEngine.MonthLine line : bill.lines) {
+            String month = Month.of(line.month).getDisplayName(TextStyle.SHORT, Locale.ENGLISH) + " " + line.year;
             
-            // Get active students count
-            int activeStudents = MessUtils.getActiveStudentCount(hostelIds);
+            Label period = new Label(month + " (" + line.from.format(day) + "–" + line.to.format(day) + ")"
+                                     + (line.finalized ? " ✔" : ""));
+            period.setStyle("-fx-font-size: 11px;");
+            period.setPrefWidth(170);
             
-            // Get total absent days
-            int totalAbsentDays = MessUtils.getTotalAbsentDays(hostelIds, selectedMonth, selectedYear);
+            Label days = new Label(line.billedDays + " days, " + line.messDays + " mess days");
+            days.setStyle("-fx-font-size: 11px; -fx-text-fill: #666;");
             
-            // Calculate totals
-            int totalStudentDays = activeStudents * daysInRange;
-            int totalMessDays = totalStudentDays - totalAbsentDays;
-            if (totalMessDays < 0) totalMessDays = 0;
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
             
-            double subtotal = totalMessDays * perDayRate;
-            double gstAmount = subtotal * (gstPercent / 100);
+            Label amount = new Label(String.format("₹%.2f", line.total));
+            amount.setStyle("-fx-font-size: 11px; -fx-font-weight: bold;");
             
-            // Handle fine amount
-            try {
-                String fineText = fineField.getText();
-                fineAmount = (fineText == null || fineText.trim().isEmpty()) 
-                    ? 0 
-                    : Double.parseDouble(fineText.trim());
-            } catch (NumberFormatException e) {
-                fineAmount = 0;
+            monthLinesList.getChildren().add(new HBox(10, period, days, spacer, amount));
+        }
+    }
+    
+    @FXML
+    private void finalizeBill() {
+        Bill shown = currentBill;
+        if (shown == null) {
+            showAlert("Error", "Generate the bill before finalizing it", Alert.AlertType.ERROR);
+            return;
+        }
+        
+        String monthName = Month.of(shown.getMonth()).getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+        
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+        confirm.setTitle("Finalize Bill");
+        confirm.setHeaderText("Finalize the bill for " + monthName + " " + shown.getYear() + "?");
+        confirm.setContentText("The current figures are saved to the bill ledger and will no longer "
+                + "change when attendance or students are edited.");
+        if (confirm.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return;
+        }
+        
+        int userId = SessionManager.getCurrentUser().getId();
+        finalizeButton.setDisable(true);
+        
+        BackgroundLoader.run(
+            // The ledger keeps exactly the bill on screen
+            () -> BillLedgerService.finalizeBill(shown, userId),
+            bill -> {
+                showAlert("Success", String.format("Bill finalized: ₹%.2f", bill.getTotalAmount()),
+                          Alert.AlertType.INFORMATION);
+                generateBill();
+            },
+            e -> {
+                finalizeButton.setDisable(false);
+                showAlert("Error", "Failed to finalize bill: " + e.getMessage(), Alert.AlertType.ERROR);
             }
+        );
+    }
+    
+    @FXML
+    private void openBillHistory() {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/views/bill_history.fxml"));
+            Parent root = loader.load();
             
-            double total = subtotal + gstAmount + fineAmount;
-            
-            // ✅ Save bill configuration (dates, operating days, and fine)
-            MessUtils.saveBillConfig(messId, selectedMonth, selectedYear, 
-                                    startDate, endDate, daysInRange, fineAmount);
-            
-            // Update UI labels
-            daysInMonthLabel.setText(String.valueOf(daysInRange));
-            totalStudentsLabel.setText(String.valueOf(activeStudents));
-            totalStudentDaysLabel.setText(String.valueOf(totalStudentDays));
-            totalAbsentDaysLabel.setText(String.valueOf(totalAbsentDays));
-            totalMessDaysLabel.setText(String.valueOf(totalMessDays));
-            perDayRateLabel.setText(String.format("₹%.2f", perDayRate));
-            subtotalLabel.setText(String.format("₹%.2f", subtotal));
-            gstPercentLabel.setText(String.format("%.1f%%", gstPercent));
-            gstAmountLabel.setText(String.format("₹%.2f", gstAmount));
-            fineAmountLabel.setText(String.format("₹%.2f", fineAmount));
-            totalAmountLabel.setText(String.format("₹%.2f", total));
+            BillHistoryController controller = loader.getController();
+            controller.setScope(messId, hostelNameLabel.getText());
             
+            App.getPrimaryStage().getScene().setRoot(root);
         } catch (Exception e) {
             e.printStackTrace();
-            showAlert("Error", "Failed to generate bill: " + e.getMessage(), Alert.AlertType.ERROR);
+            showAlert("Error", "Failed to open bill history: " + e.getMessage(), Alert.AlertType.ERROR);
         }
     }
     
     @FXML
     private void exportToPDF() {
+        if (currentBill == null) {
+            showAlert("Error", "Generate the bill before exporting it", Alert.AlertType.ERROR);
+            return;
+        }
+        
         try {
             FileChooser fileChooser = new FileChooser();
             fileChooser.setTitle("Save Bill as PDF");
@@ -296,36 +491,7 @@ public class BillingController {
             File file = fileChooser.showSaveDialog(stage);
             
             if (file != null) {
-                int daysInRange = Integer.parseInt(daysInMonthLabel.getText());
-                int totalStudents = Integer.parseInt(totalStudentsLabel.getText());
-                int totalStudentDays = Integer.parseInt(totalStudentDaysLabel.getText());
-                int totalAbsentDays = Integer.parseInt(totalAbsentDaysLabel.getText());
-                int totalMessDays = Integer.parseInt(totalMessDaysLabel.getText());
-                double subtotal = Double.parseDouble(subtotalLabel.getText().replace("₹", "").replace(",", "").trim());
-                double gstAmount = Double.parseDouble(gstAmountLabel.getText().replace("₹", "").replace(",", "").trim());
-                double fineAmount = Double.parseDouble(fineAmountLabel.getText().replace("₹", "").replace(",", "").trim());
-                double totalAmount = Double.parseDouble(totalAmountLabel.getText().replace("₹", "").replace(",", "").trim());
-                
-                BillPDFGenerator.generateBillPDF(
-                    file.getAbsolutePath(),
-                    "SHRI MATA VAISHNO DEVI UNIVERSITY",
-                    hostelNameLabel.getText(),
-                    hostelCodeLabel.getText(),
-                    billPeriodLabel.getText(),
-                    daysInRange,
-                    totalStudents,
-                    totalStudentDays,
-                    totalAbsentDays,
-                    totalMessDays,
-                    perDayRate,
-                    subtotal,
-                    gstPercent,
-                    gstAmount,
-                    totalAmount,
-                    fineAmount,
-                    preparedByLabel.getText(),
-                    LocalDate.now()
-                );
+                BillPDFGenerator.generateBillPDF(file.getAbsolutePath(), currentBill, preparedByLabel.getText());
                 
                 showAlert("Success", "Bill exported to PDF successfully!\nFile: " + file.getName(), Alert.AlertType.INFORMATION);
             }
@@ -338,6 +504,11 @@ public class BillingController {
     
     @FXML
     private void printBill() {
+        if (currentBill == null) {
+            showAlert("Error", "Generate the bill before printing it", Alert.AlertType.ERROR);
+            return;
+        }
+        
         PrinterJob printerJob = PrinterJob.createPrinterJob();
         
         if (printerJob != null && printerJob.showPrintDialog(billPreview.getScene().getWindow())) {
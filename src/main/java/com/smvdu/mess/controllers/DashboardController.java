@@ -3,11 +3,13 @@ package com.smvdu.mess.controllers;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.format.TextStyle;
-import java.util.List;
 import java.util.Locale;
 
 import com.smvdu.mess.App;
 import com.smvdu.mess.models.User;
+import com.smvdu.mess.service.MessStats;
+import com.smvdu.mess.service.MessStatsService;
+import com.smvdu.mess.utils.BackgroundLoader;
 import com.smvdu.mess.utils.MessUtils;
 import com.smvdu.mess.utils.SessionManager;
 
@@ -28,7 +30,6 @@ public class DashboardController {
     @FXML private VBox statsContainer;
     
     private User currentUser;
-    private int messId;
     
     @FXML
     public void initialize() {
@@ -52,67 +53,49 @@ public class DashboardController {
             hostelLabel.setText(currentUser.getHostelName());
         }
         
-        // Get mess ID using utility
-        messId = MessUtils.getMessIdForHostel(currentUser.getHostelId());
-        
         loadDashboardStats();
     }
-   private void loadDashboardStats() {
-    try {
+    
+    private void loadDashboardStats() {
         LocalDate now = LocalDate.now();
         int currentMonth = now.getMonthValue();
         int currentYear = now.getYear();
+        int hostelId = currentUser.getHostelId();
         
-        // Get operating days using centralized utility
-        int operatingDays = MessUtils.getOperatingDays(messId, currentMonth, currentYear);
-        
-        // Get all hostel IDs for this mess
-        List<Integer> hostelIds = MessUtils.getHostelIdsForMess(messId);
+        String monthName = Month.of(currentMonth).getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+        currentMonthLabel.setText(monthName + " " + currentYear);
         
-        if (hostelIds.isEmpty()) {
+        // Placeholders until the background load finishes
+        totalStudentsLabel.setText("…");
+        activeStudentsLabel.setText("…");
+        totalMessDaysLabel.setText("…");
+        estimatedBillLabel.setText("Loading…");
+        
+        BackgroundLoader.run(
+            () -> {
+                // Get mess ID using utility
+                int messId = MessUtils.getMessIdForHostel(hostelId);
+                
+                // All figures for this mess and month (cached, one query on a miss)
+                return MessStatsService.getStats(messId, currentMonth, currentYear);
+            },
+            this::showDashboardStats,
+            e -> showAlert("Error", "Failed to load dashboard statistics: " + e.getMessage(), Alert.AlertType.ERROR)
+        );
+    }
+    
+    private void showDashboardStats(MessStats stats) {
+        if (stats.getHostelCount() == 0) {
             showAlert("Error", "No hostels found for this mess", Alert.AlertType.ERROR);
             return;
         }
         
-        // Get student counts
-        int totalStudents = MessUtils.getTotalStudentCount(hostelIds);
-        int activeStudents = MessUtils.getActiveStudentCount(hostelIds);
-        
-        // Get total absent days
-        int totalAbsentDays = MessUtils.getTotalAbsentDays(hostelIds, currentMonth, currentYear);
-        
-        // Calculate billing
-        int totalPossibleDays = activeStudents * operatingDays;
-        int netMessDays = totalPossibleDays - totalAbsentDays;
-        if (netMessDays < 0) netMessDays = 0;
-        
-        // Get rates from settings
-        double perDayRate = MessUtils.getSetting("per_day_rate", 120.0);
-        double gstPercent = MessUtils.getSetting("gst_percent", 5.0);
-        
-        // ✅ Get fine amount
-        double fineAmount = MessUtils.getFineAmount(messId, currentMonth, currentYear);
-        
-        // Calculate bill
-        double subtotal = netMessDays * perDayRate;
-        double gst = subtotal * (gstPercent / 100);
-        double total = subtotal + gst + fineAmount;  // ✅ Include fine
-        
         // Update UI
-        totalStudentsLabel.setText(String.valueOf(totalStudents));
-        activeStudentsLabel.setText(String.valueOf(activeStudents));
-        
-        String monthName = Month.of(currentMonth).getDisplayName(TextStyle.FULL, Locale.ENGLISH);
-        currentMonthLabel.setText(monthName + " " + currentYear);
-        
-        totalMessDaysLabel.setText(String.valueOf(operatingDays));
-        estimatedBillLabel.setText(String.format("₹%.2f", total));
-        
-    } catch (Exception e) {
-        e.printStackTrace();
-        showAlert("Error", "Failed to load dashboard statistics: " + e.getMessage(), Alert.AlertType.ERROR);
+        totalStudentsLabel.setText(String.valueOf(stats.getTotalStudents()));
+        activeStudentsLabel.setText(String.valueOf(stats.getActiveStudents()));
+        totalMessDaysLabel.setText(String.valueOf(stats.getOperatingDays()));
+        estimatedBillLabel.setText(String.format("₹%.2f", stats.getEstimatedBill()));  // ✅ Includes fine
     }
-}
     
     private void showAlert(String title, String message, Alert.AlertType type) {
         Alert alert = new Alert(type);
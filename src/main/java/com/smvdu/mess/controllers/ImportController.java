@@ -1,25 +1,28 @@
 package com.smvdu.mess.controllers;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.PrintWriter;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 import com.smvdu.mess.App;
-import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.service.AttendanceImportService;
+import com.smvdu.mess.service.StudentImportPipeline;
+import com.smvdu.mess.service.StudentImportService;
+import com.smvdu.mess.utils.BackgroundLoader;
+import com.smvdu.mess.utils.CsvReader;
+import com.smvdu.mess.utils.MessUtils;
 import com.smvdu.mess.utils.SessionManager;
+import com.smvdu.mess.utils.XlsxStreamReader;
 
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextArea;
@@ -32,14 +35,33 @@ public class ImportController {
     @FXML private ProgressBar progressBar;
     @FXML private Label hostelLabel;
     
+    @FXML private Button importButton;
+    @FXML private Button cancelButton;
+    @FXML private ComboBox<String> attendanceMonthCombo;
+    @FXML private ComboBox<Integer> attendanceYearCombo;
+    @FXML private Button attendanceButton;
+    
     private File selectedFile;
     private int hostelId;
+    private StudentImportPipeline pipeline;
     
     @FXML
     public void initialize() {
         hostelId = SessionManager.getCurrentHostelId();
         hostelLabel.setText(SessionManager.getCurrentUser().getHostelName());
         progressBar.setProgress(0);
+        cancelButton.setDisable(true);
+        
+        // Attendance month/year, defaulting to the current month
+        for (Month month : Month.values()) {
+            attendanceMonthCombo.getItems().add(month.getDisplayName(TextStyle.FULL, Locale.ENGLISH));
+        }
+        int currentYear = LocalDate.now().getYear();
+        for (int y = currentYear - 2; y <= currentYear + 1; y++) {
+            attendanceYearCombo.getItems().add(y);
+        }
+        attendanceMonthCombo.setValue(LocalDate.now().getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH));
+        attendanceYearCombo.setValue(currentYear);
     }
     
     @FXML
@@ -66,126 +88,167 @@ public class ImportController {
             return;
         }
         
-        try {
-            if (selectedFile.getName().endsWith(".csv")) {
-                importCSV();
+        File file = selectedFile;
+        StudentImportPipeline.RowSource source = file.getName().endsWith(".csv")
+            ? sink -> readCSV(file, sink)
+            : sink -> readExcel(file, sink);
+        
+        pipeline = new StudentImportPipeline(hostelId, source, logArea::appendText);
+        
+        log("Starting import of " + file.getName() + "...");
+        progressBar.progressProperty().bind(pipeline.progressProperty());
+        importButton.setDisable(true);
+        cancelButton.setDisable(false);
+        
+        pipeline.setOnSucceeded(e -> {
+            StudentImportPipeline.Result result = pipeline.getValue();
+            importFinished();
+            showAlert("Success", "Imported " + result.imported + " students successfully!", Alert.AlertType.INFORMATION);
+        });
+        pipeline.setOnFailed(e -> {
+            Throwable error = pipeline.getException();
+            error.printStackTrace();
+            importFinished();
+            log("ERROR: " + error.getMessage());
+            showAlert("Error", "Import failed: " + error.getMessage(), Alert.AlertType.ERROR);
+        });
+        pipeline.setOnCancelled(e -> importFinished());
+        
+        BackgroundLoader.start(pipeline);
+    }
+    
+    @FXML
+    private void cancelImport() {
+        if (pipeline != null && pipeline.isRunning()) {
+            if (pipeline.cancel()) {
+                log("Cancelling import...");
             } else {
-                importExcel();
+                log("Too late to cancel, the import is already being saved.");
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            log("ERROR: " + e.getMessage());
-            showAlert("Error", "Import failed: " + e.getMessage(), Alert.AlertType.ERROR);
         }
     }
     
-    private void importExcel() throws Exception {
-        // FIX: Use try-with-resources to prevent resource leak
-        try (FileInputStream fis = new FileInputStream(selectedFile);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            
-            Sheet sheet = workbook.getSheetAt(0);
-            
-            int totalRows = sheet.getPhysicalNumberOfRows() - 1; // Exclude header
-            int imported = 0;
-            int errors = 0;
-            
-            Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement pstmt = conn.prepareStatement("""
-                INSERT OR REPLACE INTO students (entry_number, name, hostel_id, room_number, phone, email)
-                VALUES (?, ?, ?, ?, ?, ?)
-            """);
-            
-            log("Starting import of " + totalRows + " records...");
-            
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-                    
-                try {
-                    String entryNumber = getCellValue(row.getCell(0));
-                    String name = getCellValue(row.getCell(1));
-                    String roomNumber = getCellValue(row.getCell(2));
-                    String phone = getCellValue(row.getCell(3));
-                    String email = getCellValue(row.getCell(4));
-                    
-                    if (entryNumber.isEmpty() || name.isEmpty()) {
-                        log("Skipping row " + i + ": Missing entry number or name");
-                        errors++;
-                        continue;
+    private void importFinished() {
+        progressBar.progressProperty().unbind();
+        importButton.setDisable(false);
+        cancelButton.setDisable(true);
+        pipeline = null;
+    }
+    
+    @FXML
+    private void importAttendance() {
+        if (selectedFile == null) {
+            showAlert("Error", "Please select a file first", Alert.AlertType.ERROR);
+            return;
+        }
+        
+        File file = selectedFile;
+        int month = attendanceMonthCombo.getSelectionModel().getSelectedIndex() + 1;
+        int year = attendanceYearCombo.getValue();
+        
+        log("Importing attendance for " + attendanceMonthCombo.getValue() + " " + year + " from " + file.getName() + "...");
+        attendanceButton.setDisable(true);
+        
+        // Row messages are collected off-thread and shown together at the end
+        List<String> messages = new ArrayList<>();
+        
+        BackgroundLoader.run(
+            () -> {
+                List<AttendanceImportService.AttendanceRow> rows = readAttendanceRows(file);
+                int messId = MessUtils.getMessIdForHostel(hostelId);
+                return AttendanceImportService.importAttendance(messId, month, year, rows, messages::add);
+            },
+            result -> {
+                attendanceButton.setDisable(false);
+                messages.forEach(this::log);
+                if (!result.unmatched.isEmpty()) {
+                    log("No student in this mess for " + result.unmatched.size() + " entries: "
+                        + String.join(", ", result.unmatched));
+                }
+                log("Attendance import complete! Updated: " + result.updated
+                    + ", Unmatched: " + result.unmatched.size() + ", Errors: " + result.errors);
+                showAlert("Success", "Updated attendance for " + result.updated + " students", Alert.AlertType.INFORMATION);
+            },
+            e -> {
+                attendanceButton.setDisable(false);
+                log("ERROR: " + e.getMessage());
+                showAlert("Error", "Attendance import failed: " + e.getMessage(), Alert.AlertType.ERROR);
+            }
+        );
+    }
+    
+    // Runs on a background thread
+    private List<AttendanceImportService.AttendanceRow> readAttendanceRows(File file) throws Exception {
+        List<AttendanceImportService.AttendanceRow> rows = new ArrayList<>();
+        
+        if (file.getName().endsWith(".csv")) {
+            try (CsvReader csv = new CsvReader(file.toPath())) {
+                boolean header = true;
+                while (csv.next()) {
+                    if (header) {
+                        header = false;
+                        continue; // Skip header
                     }
-                    
-                    pstmt.setString(1, entryNumber);
-                    pstmt.setString(2, name);
-                    pstmt.setInt(3, hostelId);
-                    pstmt.setString(4, roomNumber);
-                    pstmt.setString(5, phone);
-                    pstmt.setString(6, email);
-                    pstmt.executeUpdate();
-                    
-                    imported++;
-                    progressBar.setProgress((double) i / totalRows);
-                    
-                } catch (Exception e) {
-                    log("Error on row " + i + ": " + e.getMessage());
-                    errors++;
+                    if (csv.isBlank(0) && csv.isBlank(1)) continue;
+                    rows.add(new AttendanceImportService.AttendanceRow(csv.lineNumber(), csv.get(0), csv.get(1)));
                 }
             }
-            
-            log("Import complete! Imported: " + imported + ", Errors: " + errors);
-            showAlert("Success", "Imported " + imported + " students successfully!", Alert.AlertType.INFORMATION);
+        } else {
+            XlsxStreamReader.read(file, (i, cells, lastRow) -> {
+                if (i == 0) return; // Skip header
+                String entry = XlsxStreamReader.cell(cells, 0);
+                String absent = XlsxStreamReader.cell(cells, 1);
+                if (entry.isEmpty() && absent.isEmpty()) return;
+                rows.add(new AttendanceImportService.AttendanceRow(i + 1, entry, absent)); // Row as Excel shows it
+            });
         }
+        return rows;
     }
     
-    private void importCSV() throws Exception {
-        // FIX: Use try-with-resources
-        try (BufferedReader reader = new BufferedReader(new FileReader(selectedFile))) {
-            String line;
-            int lineNum = 0;
-            int imported = 0;
-            int errors = 0;
+    // ===== FILE PARSERS (run on the pipeline's parser thread) =====
+    
+    private void readExcel(File file, StudentImportPipeline.RowSink sink) throws Exception {
+        // ✅ Streams the sheet row by row instead of loading the whole workbook
+        XlsxStreamReader.read(file, (i, cells, lastRow) -> {
+            if (i == 0) return; // Skip header
             
-            Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement pstmt = conn.prepareStatement("""
-                INSERT OR REPLACE INTO students (entry_number, name, hostel_id, room_number, phone, email)
-                VALUES (?, ?, ?, ?, ?, ?)
-            """);
+            sink.accept(new StudentImportService.StudentRow(
+                i + 1, // Row as Excel shows it
+                XlsxStreamReader.cell(cells, 0),
+                XlsxStreamReader.cell(cells, 1),
+                XlsxStreamReader.cell(cells, 2),
+                XlsxStreamReader.cell(cells, 3),
+                XlsxStreamReader.cell(cells, 4)
+            ));
             
-            while ((line = reader.readLine()) != null) {
-                lineNum++;
-                if (lineNum == 1) continue; // Skip header
-                
-                try {
-                    String[] parts = line.split(",");
-                    if (parts.length < 2) continue;
-                    
-                    pstmt.setString(1, parts[0].trim());
-                    pstmt.setString(2, parts[1].trim());
-                    pstmt.setInt(3, hostelId);
-                    pstmt.setString(4, parts.length > 2 ? parts[2].trim() : "");
-                    pstmt.setString(5, parts.length > 3 ? parts[3].trim() : "");
-                    pstmt.setString(6, parts.length > 4 ? parts[4].trim() : "");
-                    pstmt.executeUpdate();
-                    
-                    imported++;
-                } catch (Exception e) {
-                    log("Error on line " + lineNum + ": " + e.getMessage());
-                    errors++;
-                }
+            if (lastRow > 0) {
+                sink.progress((double) i / lastRow);
             }
-            
-            log("Import complete! Imported: " + imported + ", Errors: " + errors);
-            showAlert("Success", "Imported " + imported + " students!", Alert.AlertType.INFORMATION);
-        }
+        });
     }
     
-    private String getCellValue(Cell cell) {
-        if (cell == null) return "";
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue();
-            case NUMERIC -> String.valueOf((int) cell.getNumericCellValue());
-            default -> "";
-        };
+    private void readCSV(File file, StudentImportPipeline.RowSink sink) throws Exception {
+        try (CsvReader csv = new CsvReader(file.toPath())) {
+            boolean header = true;
+            
+            while (csv.next()) {
+                if (header) {
+                    header = false;
+                    continue; // Skip header
+                }
+                if (csv.fieldCount() < 2) continue;
+                
+                sink.accept(new StudentImportService.StudentRow(
+                    csv.lineNumber(),
+                    csv.get(0),
+                    csv.get(1),
+                    csv.get(2),
+                    csv.get(3),
+                    csv.get(4)
+                ));
+                sink.progress(csv.progress());
+            }
+        }
     }
     
     private void log(String message) {
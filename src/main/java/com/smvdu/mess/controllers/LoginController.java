@@ -1,11 +1,11 @@
 package com.smvdu.mess.controllers;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 
 import com.smvdu.mess.App;
 import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
 import com.smvdu.mess.models.User;
 import com.smvdu.mess.utils.SessionManager;
 
@@ -47,21 +47,25 @@ private void handleLogin() {
         return;
     }
     
-    try {
-        Connection conn = DatabaseConnection.getConnection();
+    try (PooledConnection conn = DatabaseConnection.read()) {
         
         // Check if admin FIRST
-        PreparedStatement pstmt = conn.prepareStatement(
+        PreparedStatement pstmt = conn.prepare(
             "SELECT id, email, name, designation FROM admins WHERE email = ? AND password = ?"
         );
         pstmt.setString(1, email);
         pstmt.setString(2, password);
-        ResultSet rs = pstmt.executeQuery();
+        String adminName = null;
+        String designation = null;
+        try (ResultSet rs = pstmt.executeQuery()) {
+            if (rs.next()) {
+                adminName = rs.getString("name");
+                designation = rs.getString("designation");
+            }
+        }
         
-  if (rs.next()) {
+  if (adminName != null) {
     // Admin login detected
-    String adminName = rs.getString("name");
-    String designation = rs.getString("designation");
     
     System.out.println("Admin login: " + adminName + " (" + designation + ")");
     
@@ -89,22 +93,25 @@ private void handleLogin() {
             WHERE u.email = ? AND u.password = ?
         """;
         
-        pstmt = conn.prepareStatement(query);
+        pstmt = conn.prepare(query);
         pstmt.setString(1, email);
         pstmt.setString(2, password);
         
-        rs = pstmt.executeQuery();
+        User user = null;
+        try (ResultSet rs = pstmt.executeQuery()) {
+            if (rs.next()) {
+                user = new User(
+                    rs.getInt("id"),
+                    rs.getString("email"),
+                    rs.getString("name"),
+                    rs.getInt("hostel_id"),
+                    rs.getString("hostel_name"),
+                    rs.getString("mess_name")
+                );
+            }
+        }
         
-        if (rs.next()) {
-            User user = new User(
-                rs.getInt("id"),
-                rs.getString("email"),
-                rs.getString("name"),
-                rs.getInt("hostel_id"),
-                rs.getString("hostel_name"),
-                rs.getString("mess_name")
-            );
-            
+        if (user != null) {
             SessionManager.setCurrentUser(user);
             App.setRoot("dashboard");
         } else {
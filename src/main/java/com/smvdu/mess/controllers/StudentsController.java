@@ -1,26 +1,36 @@
 package com.smvdu.mess.controllers;
 
 import java.io.File;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
 
 import com.smvdu.mess.App;
-import com.smvdu.mess.database.DatabaseConnection;
 import com.smvdu.mess.models.Student;
+import com.smvdu.mess.models.StudentRecord;
+import com.smvdu.mess.service.AttendanceWriteQueue;
+import com.smvdu.mess.service.StudentPageQuery;
+import com.smvdu.mess.utils.BackgroundLoader;
 import com.smvdu.mess.utils.MessUtils;
+import com.smvdu.mess.utils.PagedTableLoader;
 import com.smvdu.mess.utils.SessionManager;
+import com.smvdu.mess.utils.StudentSearchIndex;
 import com.smvdu.mess.utils.StudentReportPDFGenerator;
 
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.scene.control.Button;
@@ -34,9 +44,14 @@ import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.control.cell.TextFieldTableCell;
+import javafx.scene.input.KeyCode;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.stage.FileChooser;
+import javafx.stage.WindowEvent;
+import javafx.util.Duration;
+import javafx.util.StringConverter;
 
 public class StudentsController {
 
@@ -53,16 +68,45 @@ public class StudentsController {
     @FXML private ComboBox<String> batchFilterCombo;
     @FXML private Button printButton;
     @FXML private HBox filterBox;
+    @FXML private Label unsavedLabel;
+    @FXML private Button saveButton;
 
-    private final ObservableList<Student> studentsList = FXCollections.observableArrayList();
     private final ObservableList<Student> allStudentsList = FXCollections.observableArrayList();
+    private final FilteredList<Student> studentsList = new FilteredList<>(allStudentsList);
+    // FilteredList can't be sorted in place; the table sorts this view instead
+    private final SortedList<Student> sortedStudents = new SortedList<>(studentsList);
+    private StudentSearchIndex searchIndex = new StudentSearchIndex(List.of());
+    private PagedTableLoader<Student> pager;
+    private boolean indexStale = true;
+    private int totalStudents;
+    private List<Integer> batchYears = List.of();
+
+    private static final int PAGE_SIZE = 200;
+
+    // Fast typing only filters once, after a short pause
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(150));
     private int hostelId;
-    private int messId;
+    private int messId = -1;
+    private int operatingDays;
+
+    // Inline edits not yet handed to the write queue, keyed by student id
+    private static final Duration AUTO_SAVE_INTERVAL = Duration.seconds(15);
+    private final Map<Integer, Student> dirtyStudents = new LinkedHashMap<>();
+    private Timeline autoSave;
+    private final EventHandler<WindowEvent> onWindowClose = e -> leave();
+
+    // Result of one background student load
+    private static class StudentLoad {
+        int messId;
+        int operatingDays;
+        int totalStudents;
+        List<Integer> batchYears;
+        List<Student> firstPage;
+    }
 
     @FXML
     public void initialize() {
         hostelId = SessionManager.getCurrentHostelId();
-        messId = MessUtils.getMessIdForHostel(hostelId);
 
         hostelLabel.setText(
             SessionManager.getCurrentUser().getMessName() != null
@@ -72,9 +116,22 @@ public class StudentsController {
 
         setupTable();
         loadStudents();
-        setupBatchFilter();
 
-        searchField.textProperty().addListener((obs, o, n) -> filterStudents());
+        // Save inline edits periodically during long data entry sessions
+        autoSave = new Timeline(new KeyFrame(AUTO_SAVE_INTERVAL, e -> saveAttendance()));
+        autoSave.setCycleCount(Timeline.INDEFINITE);
+        autoSave.play();
+        updateUnsavedLabel();
+
+        // Dirty rows must reach the queue however the screen is left: replaced
+        // by another screen, or the window closed (App.stop flushes the queue)
+        studentsTable.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) leave();
+        });
+        App.getPrimaryStage().addEventHandler(WindowEvent.WINDOW_CLOSE_REQUEST, onWindowClose);
+
+        searchDebounce.setOnFinished(e -> filterStudents());
+        searchField.textProperty().addListener((obs, o, n) -> searchDebounce.playFromStart());
     }
 
     private void setupTable() {
@@ -82,7 +139,36 @@ public class StudentsController {
         nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
         roomCol.setCellValueFactory(new PropertyValueFactory<>("roomNumber"));
         messDaysCol.setCellValueFactory(new PropertyValueFactory<>("messDays"));
-        absentDaysCol.setCellValueFactory(new PropertyValueFactory<>("absentDays"));
+        absentDaysCol.setCellValueFactory(c -> c.getValue().absentDaysProperty().asObject());
+
+        // ✅ Absent days are edited in place: Enter/F2 starts editing, Enter commits and moves down
+        studentsTable.setEditable(true);
+        absentDaysCol.setEditable(true);
+        absentDaysCol.setCellFactory(TextFieldTableCell.forTableColumn(new StringConverter<Integer>() {
+            @Override
+            public String toString(Integer value) {
+                return value == null ? "" : value.toString();
+            }
+
+            @Override
+            public Integer fromString(String text) {
+                try {
+                    return Integer.valueOf(text.trim());
+                } catch (NumberFormatException e) {
+                    return null; // Rejected in onEditCommit
+                }
+            }
+        }));
+        absentDaysCol.setOnEditCommit(this::commitAbsentDays);
+
+        studentsTable.setOnKeyPressed(e -> {
+            int row = studentsTable.getSelectionModel().getSelectedIndex();
+            if (row >= 0 && studentsTable.getEditingCell() == null
+                    && (e.getCode() == KeyCode.ENTER || e.getCode() == KeyCode.F2)) {
+                studentsTable.edit(row, absentDaysCol);
+                e.consume();
+            }
+        });
 
         actionCol.setCellFactory(col -> new TableCell<>() {
             private final Button editBtn = new Button("Edit");
@@ -99,133 +185,135 @@ public class StudentsController {
             }
         });
 
-        studentsTable.setItems(studentsList);
+        sortedStudents.comparatorProperty().bind(studentsTable.comparatorProperty());
+        studentsTable.setItems(sortedStudents);
+
+        // Pages are appended to the unfiltered list as the table scrolls
+        pager = new PagedTableLoader<>(studentsTable, allStudentsList, Student::getEntryNumber, PAGE_SIZE);
+        pager.setOnError(e -> studentsTable.setPlaceholder(new Label("Failed to load students")));
+        pager.setOnPageLoaded(() -> indexStale = true);
     }
 
     private void loadStudents() {
-        allStudentsList.clear();
-        studentsList.clear();
+        studentsTable.setPlaceholder(new Label("Loading students..."));
+        int knownMessId = messId;
+
+        BackgroundLoader.run(
+            () -> queryStudents(knownMessId),
+            this::showStudents,
+            e -> studentsTable.setPlaceholder(new Label("Failed to load students"))
+        );
+    }
+
+    // Runs on a background thread
+    private StudentLoad queryStudents(int knownMessId) throws SQLException {
+        StudentLoad load = new StudentLoad();
         LocalDate now = LocalDate.now();
-        
-        int operatingDays = MessUtils.getOperatingDays(messId, now.getMonthValue(), now.getYear());
 
-        try {
-            List<Integer> hostelIds = MessUtils.getHostelIdsForMess(messId);
-            String hostelIdsStr = MessUtils.hostelIdsToString(hostelIds);
-
-            Connection conn = DatabaseConnection.getConnection();
-            
-            String sql =
-                "SELECT s.*, " +
-                "COALESCE(sa.mess_days, ?) mess_days, " +
-                "COALESCE(sa.absent_days, 0) absent_days " +
-                "FROM students s " +
-                "LEFT JOIN student_attendance sa ON s.id = sa.student_id " +
-                "AND sa.month = ? AND sa.year = ? " +
-                "WHERE s.hostel_id IN (" + hostelIdsStr + ") AND s.is_active = 1 " +
-                "ORDER BY s.entry_number";
-
-            PreparedStatement ps = conn.prepareStatement(sql);
-            ps.setInt(1, operatingDays);
-            ps.setInt(2, now.getMonthValue());
-            ps.setInt(3, now.getYear());
-
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                Student st = new Student(
-                    rs.getInt("id"),
-                    rs.getString("entry_number"),
-                    rs.getString("name"),
-                    rs.getInt("hostel_id"),
-                    rs.getString("room_number"),
-                    rs.getString("phone"),
-                    rs.getString("email"),
-                    rs.getInt("is_active") == 1
-                );
-                st.setMessDays(rs.getInt("mess_days"));
-                st.setAbsentDays(rs.getInt("absent_days"));
-                allStudentsList.add(st);
-            }
+        // Edits still waiting in the write-behind queue must be visible to the query
+        AttendanceWriteQueue.flushNow();
 
-            studentsList.setAll(allStudentsList);
-            totalLabel.setText("Total: " + studentsList.size() + " students");
+        load.messId = knownMessId >= 0 ? knownMessId : MessUtils.getMessIdForHostel(hostelId);
+        load.operatingDays = MessUtils.getOperatingDays(load.messId, now.getMonthValue(), now.getYear());
+        load.totalStudents = StudentPageQuery.countActive(load.messId);
+        load.batchYears = StudentPageQuery.batchYears(load.messId);
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+        // Only the first page; the rest is fetched as the table scrolls
+        load.firstPage = StudentPageQuery.loadPage(
+            load.messId, now.getMonthValue(), now.getYear(), load.operatingDays, "", PAGE_SIZE);
+
+        return load;
+    }
+
+    private void showStudents(StudentLoad load) {
+        messId = load.messId;
+        operatingDays = load.operatingDays;
+        totalStudents = load.totalStudents;
+        batchYears = load.batchYears;
+
+        int pageMessId = load.messId;
+        int pageOperatingDays = load.operatingDays;
+        LocalDate now = LocalDate.now();
+
+        pager.reset(
+            (after, limit) -> StudentPageQuery.loadPage(
+                pageMessId, now.getMonthValue(), now.getYear(), pageOperatingDays, after, limit),
+            load.firstPage
+        );
+        studentsTable.setPlaceholder(new Label("No students found"));
+
+        if (batchFilterCombo.getItems().isEmpty()) {
+            setupBatchFilter();
         }
+        filterStudents();
     }
 
     // ✅ NEW: Setup batch filter dropdown
     private void setupBatchFilter() {
-        Set<String> batches = new HashSet<>();
+        List<String> batches = new ArrayList<>();
         batches.add("All Batches");
 
-        for (Student student : allStudentsList) {
-            String batch = extractBatch(student.getEntryNumber());
-            if (batch != null) {
-                batches.add(batch);
-            }
+        // Newest first (2025, 2024, 2023...)
+        for (int year : batchYears) {
+            batches.add(String.valueOf(year));
         }
 
-        List<String> sortedBatches = new ArrayList<>(batches);
-        sortedBatches.sort((a, b) -> {
-            if (a.equals("All Batches")) return -1;
-            if (b.equals("All Batches")) return 1;
-            return b.compareTo(a); // Descending order (2025, 2024, 2023...)
-        });
-
-        batchFilterCombo.setItems(FXCollections.observableArrayList(sortedBatches));
+        batchFilterCombo.setItems(FXCollections.observableArrayList(batches));
         batchFilterCombo.setValue("All Batches");
         
         batchFilterCombo.setOnAction(e -> filterStudents());
     }
 
-    // ✅ NEW: Extract batch year from entry number
-    private String extractBatch(String entryNumber) {
-        if (entryNumber == null || entryNumber.length() < 2) {
-            return null;
+    // ✅ UPDATED: Filter by both search and batch through the precomputed index
+    private void filterStudents() {
+        String query = searchField.getText();
+        String selectedBatch = batchFilterCombo.getValue();
+        int batchYear = 0;
+        if (selectedBatch != null && !selectedBatch.equals("All Batches")) {
+            batchYear = Integer.parseInt(selectedBatch);
         }
 
-        try {
-            // Extract first 2 digits (e.g., "23" from "23BCS079")
-            String yearPrefix = entryNumber.substring(0, 2);
-            int year = Integer.parseInt(yearPrefix);
-            
-            // Convert to full year (23 -> 2023, 25 -> 2025)
-            int fullYear = 2000 + year;
-            
-            return String.valueOf(fullYear);
-        } catch (NumberFormatException e) {
-            return null;
+        if ((query == null || query.isBlank()) && batchYear == 0) {
+            studentsList.setPredicate(null);
+            updateTotalLabel();
+            return;
         }
-    }
 
-    // ✅ UPDATED: Filter by both search and batch
-    private void filterStudents() {
-        String searchQuery = searchField.getText();
-        String selectedBatch = batchFilterCombo.getValue();
-
-        ObservableList<Student> filtered = allStudentsList.filtered(student -> {
-            // Batch filter
-            boolean batchMatch = true;
-            if (selectedBatch != null && !selectedBatch.equals("All Batches")) {
-                String studentBatch = extractBatch(student.getEntryNumber());
-                batchMatch = selectedBatch.equals(studentBatch);
+        // Filtering needs every student, so fetch the remaining pages first
+        int filterBatchYear = batchYear;
+        totalLabel.setText("Searching...");
+        pager.loadAll(() -> {
+            if (indexStale) {
+                List<Student> snapshot = new ArrayList<>(allStudentsList);
+                BackgroundLoader.run(
+                    () -> new StudentSearchIndex(snapshot),
+                    index -> {
+                        searchIndex = index;
+                        indexStale = false;
+                        applyFilter(query, filterBatchYear);
+                    },
+                    e -> updateTotalLabel()
+                );
+            } else {
+                applyFilter(query, filterBatchYear);
             }
+        });
+    }
 
-            // Search filter
-            boolean searchMatch = true;
-            if (searchQuery != null && !searchQuery.isEmpty()) {
-                String lowerQuery = searchQuery.toLowerCase();
-                searchMatch = student.getName().toLowerCase().contains(lowerQuery)
-                           || student.getEntryNumber().toLowerCase().contains(lowerQuery);
-            }
+    private void applyFilter(String query, int batchYear) {
+        // Skip results for a query the user has already typed past
+        if (!Objects.equals(query, searchField.getText())) return;
 
-            return batchMatch && searchMatch;
-        });
+        studentsList.setPredicate(searchIndex.predicate(query, batchYear));
+        updateTotalLabel();
+    }
 
-        studentsList.setAll(filtered);
-        totalLabel.setText("Total: " + studentsList.size() + " students");
+    private void updateTotalLabel() {
+        if (studentsList.getPredicate() == null) {
+            totalLabel.setText("Total: " + totalStudents + " students");
+        } else {
+            totalLabel.setText("Total: " + studentsList.size() + " students");
+        }
     }
 
     // ✅ NEW: Print button handler
@@ -272,67 +360,80 @@ public class StudentsController {
             File file = fileChooser.showSaveDialog(studentsTable.getScene().getWindow());
 
             if (file != null) {
-                List<Student> studentsToReport = new ArrayList<>();
-
-                switch (reportType) {
-                    case "ALL":
-                        studentsToReport.addAll(studentsList);
-                        break;
-                    case "ABSENT":
-                        for (Student s : studentsList) {
-                            if (s.getAbsentDays() > 0) {
-                                studentsToReport.add(s);
-                            }
-                        }
-                        break;
-                    case "PRESENT":
-                        for (Student s : studentsList) {
-                            if (s.getAbsentDays() == 0) {
-                                studentsToReport.add(s);
-                            }
-                        }
-                        break;
-                }
+                // The report covers every student, not just the pages scrolled so far
+                pager.loadAll(() -> writeReport(file, reportType));
+            }
 
-                String messName = SessionManager.getCurrentUser().getMessName() != null
-                    ? SessionManager.getCurrentUser().getMessName()
-                    : SessionManager.getCurrentUser().getHostelName();
+        } catch (Exception e) {
+            e.printStackTrace();
+            showReportError(e);
+        }
+    }
+
+    private void writeReport(File file, String reportType) {
+        // Plain records: the report never binds to the UI
+        List<StudentRecord> studentsToReport = new ArrayList<>();
+
+        // In the order the table shows
+        for (Student s : sortedStudents) {
+            StudentRecord record = s.toRecord();
+            switch (reportType) {
+                case "ALL":
+                    studentsToReport.add(record);
+                    break;
+                case "ABSENT":
+                    if (record.getAbsentDays() > 0) studentsToReport.add(record);
+                    break;
+                case "PRESENT":
+                    if (record.getAbsentDays() == 0) studentsToReport.add(record);
+                    break;
+            }
+        }
+
+        String messName = SessionManager.getCurrentUser().getMessName() != null
+            ? SessionManager.getCurrentUser().getMessName()
+            : SessionManager.getCurrentUser().getHostelName();
 
-                LocalDate now = LocalDate.now();
-                int operatingDays = MessUtils.getOperatingDays(messId, now.getMonthValue(), now.getYear());
+        int reportOperatingDays = operatingDays;
 
+        // Writing the PDF can take a while for large messes
+        BackgroundLoader.run(
+            () -> {
                 StudentReportPDFGenerator.generateStudentReport(
                     file.getAbsolutePath(),
                     "SHRI MATA VAISHNO DEVI UNIVERSITY",
                     messName,
                     reportType,
                     studentsToReport,
-                    operatingDays,
-                    now
+                    reportOperatingDays,
+                    LocalDate.now()
                 );
-
+                return file;
+            },
+            written -> {
                 javafx.scene.control.Alert alert = new javafx.scene.control.Alert(
                     javafx.scene.control.Alert.AlertType.INFORMATION
                 );
                 alert.setTitle("Success");
-                alert.setContentText("Report generated successfully!\nFile: " + file.getName());
+                alert.setContentText("Report generated successfully!\nFile: " + written.getName());
                 alert.showAndWait();
-            }
+            },
+            this::showReportError
+        );
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            javafx.scene.control.Alert alert = new javafx.scene.control.Alert(
-                javafx.scene.control.Alert.AlertType.ERROR
-            );
-            alert.setTitle("Error");
-            alert.setContentText("Failed to generate report: " + e.getMessage());
-            alert.showAndWait();
-        }
+    private void showReportError(Throwable e) {
+        javafx.scene.control.Alert alert = new javafx.scene.control.Alert(
+            javafx.scene.control.Alert.AlertType.ERROR
+        );
+        alert.setTitle("Error");
+        alert.setContentText("Failed to generate report: " + e.getMessage());
+        alert.showAndWait();
     }
 
     private void showEditDialog(Student student) {
-        LocalDate now = LocalDate.now();
-        int operatingDays = MessUtils.getOperatingDays(messId, now.getMonthValue(), now.getYear());
+        // Operating days were loaded together with the student list
+        int operatingDays = this.operatingDays;
 
         Dialog<ButtonType> dialog = new Dialog<>();
         dialog.setTitle("Edit Attendance");
@@ -361,50 +462,87 @@ public class StudentsController {
 
         dialog.showAndWait().ifPresent(bt -> {
             if (bt == ButtonType.OK) {
-                updateAttendance(
-                    student.getId(),
-                    operatingDays - absentSpinner.getValue(),
-                    absentSpinner.getValue(),
-                    operatingDays
-                );
-                loadStudents();
-                filterStudents();
+                updateAttendance(student, absentSpinner.getValue(), operatingDays);
             }
         });
     }
 
-    private void updateAttendance(int studentId, int messDays, int absentDays, int totalDays) {
-        LocalDate now = LocalDate.now();
+    private void commitAbsentDays(TableColumn.CellEditEvent<Student, Integer> event) {
+        Student student = event.getRowValue();
+        Integer absentDays = event.getNewValue();
 
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement ps = conn.prepareStatement(
-                "INSERT INTO student_attendance " +
-                "(student_id, month, year, total_days, mess_days, absent_days) " +
-                "VALUES (?,?,?,?,?,?) " +
-                "ON CONFLICT(student_id, month, year) DO UPDATE SET " +
-                "total_days = excluded.total_days, " +
-                "mess_days = excluded.mess_days, " +
-                "absent_days = excluded.absent_days, " +
-                "updated_at = CURRENT_TIMESTAMP"
-            );
+        if (absentDays == null || absentDays < 0 || absentDays > operatingDays) {
+            studentsTable.refresh(); // Put the old value back in the cell
+            return;
+        }
+        updateAttendance(student, absentDays, operatingDays);
+
+        // Move down so a whole register can be typed with the keyboard
+        int next = event.getTablePosition().getRow() + 1;
+        if (next < studentsTable.getItems().size()) {
+            Platform.runLater(() -> {
+                studentsTable.getSelectionModel().select(next);
+                studentsTable.scrollTo(Math.max(0, next - 5));
+                studentsTable.edit(next, absentDaysCol);
+            });
+        }
+    }
 
-            ps.setInt(1, studentId);
-            ps.setInt(2, now.getMonthValue());
-            ps.setInt(3, now.getYear());
-            ps.setInt(4, totalDays);
-            ps.setInt(5, messDays);
-            ps.setInt(6, absentDays);
+    /**
+     * Update the edited row in place and mark it dirty; no reload, so the
+     * table keeps its scroll position and selection
+     */
+    private void updateAttendance(Student student, int absentDays, int totalDays) {
+        student.setAbsentDays(absentDays);
+        student.setMessDays(totalDays - absentDays);
 
-            ps.executeUpdate();
+        dirtyStudents.put(student.getId(), student);
+        updateUnsavedLabel();
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+    /**
+     * Hand every dirty row to the write queue as one batch
+     */
+    @FXML
+    private void saveAttendance() {
+        if (dirtyStudents.isEmpty()) return;
+
+        LocalDate now = LocalDate.now();
+        for (Student student : dirtyStudents.values()) {
+            AttendanceWriteQueue.submit(
+                messId,
+                student.getId(),
+                now.getMonthValue(),
+                now.getYear(),
+                operatingDays,
+                student.getMessDays(),
+                student.getAbsentDays()
+            );
         }
+        dirtyStudents.clear();
+        AttendanceWriteQueue.flushSoon();
+        updateUnsavedLabel();
+    }
+
+    private void updateUnsavedLabel() {
+        int count = dirtyStudents.size();
+        unsavedLabel.setText(count == 0 ? "All changes saved" : count + " unsaved change(s)");
+        saveButton.setDisable(count == 0);
+    }
+
+    /**
+     * Stop auto-saving and hand any dirty rows to the write queue
+     */
+    private void leave() {
+        autoSave.stop();
+        saveAttendance();
+        App.getPrimaryStage().removeEventHandler(WindowEvent.WINDOW_CLOSE_REQUEST, onWindowClose);
     }
 
     @FXML
     private void goBack() {
+        leave();
+
         try {
             App.setRoot("dashboard");
         } catch (Exception e) {
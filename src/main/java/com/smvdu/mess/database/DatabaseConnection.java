@@ -7,6 +7,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.sqlite.SQLiteConfig;
 
 public class DatabaseConnection {
 
@@ -22,7 +28,20 @@ public class DatabaseConnection {
     private static final String DB_URL =
             "jdbc:sqlite:" + DB_PATH;
 
-    private static Connection connection;
+    // ===== POOL SETTINGS =====
+    private static final int READ_POOL_SIZE = 4;
+    private static final int BUSY_TIMEOUT_MS = 5000;
+    private static final long READ_WAIT_SECONDS = 10;
+
+    // Single writer: SQLite allows one writer at a time anyway, so writes
+    // queue on this lock instead of failing with SQLITE_BUSY
+    private static final ReentrantLock WRITE_LOCK = new ReentrantLock();
+    private static PooledConnection writer;
+
+    // Readers: WAL lets these run while the writer commits
+    private static final BlockingQueue<PooledConnection> READ_POOL =
+            new ArrayBlockingQueue<>(READ_POOL_SIZE);
+    private static final ThreadLocal<PooledConnection> HELD_READER = new ThreadLocal<>();
 
     // ===== INITIALIZATION =====
     public static void initialize() {
@@ -36,10 +55,25 @@ public class DatabaseConnection {
             // Load SQLite driver
             Class.forName("org.sqlite.JDBC");
 
-            connection = DriverManager.getConnection(DB_URL);
-            createTables();
-            migrateDatabase();  // ✅ Call BEFORE insertDefaultData
-            insertDefaultData();
+            // Writer must be opened first: it switches the file to WAL mode
+            writer = new PooledConnection(openConnection(false), c -> WRITE_LOCK.unlock());
+
+            try (PooledConnection conn = write()) {
+                Connection connection = conn.getConnection();
+                createTables(connection);
+                migrateDatabase(connection);  // ✅ Call BEFORE insertDefaultData
+                insertDefaultData(connection);
+                applySchemaVersions(connection);
+
+                // Rows staged by an import that never finished (e.g. the app was killed)
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.executeUpdate("DELETE FROM student_import_staging");
+                }
+            }
+
+            for (int i = 0; i < READ_POOL_SIZE; i++) {
+                READ_POOL.add(new PooledConnection(openConnection(true), DatabaseConnection::releaseReader));
+            }
 
             System.out.println("Database initialized successfully!");
             System.out.println("DB Path: " + DB_PATH);
@@ -49,20 +83,89 @@ public class DatabaseConnection {
         }
     }
 
-    // ===== CONNECTION PROVIDER =====
-    public static Connection getConnection() {
+    private static Connection openConnection(boolean readOnly) throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL); // Safe under WAL
+        config.setBusyTimeout(BUSY_TIMEOUT_MS);
+        config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        // INSERT OR REPLACE must fire DELETE triggers too, or the search index goes stale
+        config.enableRecursiveTriggers(true);
+        config.setReadOnly(readOnly);
+        return DriverManager.getConnection(DB_URL, config.toProperties());
+    }
+
+    // ===== CONNECTION PROVIDERS =====
+
+    /**
+     * Borrow a read connection. Use in try-with-resources; closing returns it.
+     * A thread that already holds the writer reads through the writer so it
+     * sees its own uncommitted changes.
+     */
+    public static PooledConnection read() throws SQLException {
+        if (WRITE_LOCK.isHeldByCurrentThread()) {
+            return write();
+        }
+
+        PooledConnection held = HELD_READER.get();
+        if (held != null) {
+            held.acquire();
+            return held;
+        }
+
         try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(DB_URL);
+            PooledConnection reader = READ_POOL.poll(READ_WAIT_SECONDS, TimeUnit.SECONDS);
+            if (reader == null) {
+                throw new SQLException("Timed out waiting for a read connection");
+            }
+            reader.acquire();
+            HELD_READER.set(reader);
+            return reader;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a read connection", e);
+        }
+    }
+
+    /**
+     * Borrow the writer connection. Blocks while another thread is writing.
+     */
+    public static PooledConnection write() {
+        WRITE_LOCK.lock();
+        writer.acquire();
+        return writer;
+    }
+
+    private static void releaseReader(PooledConnection reader) {
+        if (!reader.isHeld()) {
+            HELD_READER.remove();
+            READ_POOL.offer(reader);
+        }
+    }
+
+    public static void shutdown() {
+        PooledConnection reader;
+        while ((reader = READ_POOL.poll()) != null) {
+            reader.closePhysical();
+        }
+        if (writer != null) {
+            WRITE_LOCK.lock();
+            try (Statement stmt = writer.getConnection().createStatement()) {
+                // Refresh planner statistics for indexes whose data changed
+                stmt.execute("PRAGMA optimize");
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            try {
+                writer.closePhysical();
+            } finally {
+                WRITE_LOCK.unlock();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
-        return connection;
     }
 
     // ===== TABLE CREATION =====
-    private static void createTables() throws SQLException {
+    private static void createTables(Connection connection) throws SQLException {
         Statement stmt = connection.createStatement();
 
         stmt.execute("""
@@ -199,7 +302,7 @@ stmt.execute("""
     }
 
     // ===== DATABASE MIGRATION =====
-    private static void migrateDatabase() {
+    private static void migrateDatabase(Connection connection) {
         try (Statement stmt = connection.createStatement()) {
 
             // ✅ Check if mess_id column exists before adding
@@ -246,13 +349,257 @@ stmt.execute("""
         }
     }
 
+    // ===== MESS MONTH ROLLUP STATEMENTS (used by schema v4) =====
+
+    // The mess's own row for every mess with hostels, counted from scratch
+    private static final String ROLLUP_BACKFILL_MESSES = """
+        INSERT INTO mess_month_rollup (mess_id, month, year, total_students, active_students, absent_days_sum)
+        SELECT h.mess_id, 0, 0, COUNT(s.id), COALESCE(SUM(s.is_active = 1), 0), 0
+        FROM hostels h
+        LEFT JOIN students s ON s.hostel_id = h.id
+        """;
+
+    // One row per month with attendance, counts copied from the mess's own row
+    private static final String ROLLUP_BACKFILL_MONTHS = """
+        INSERT INTO mess_month_rollup (mess_id, month, year, total_students, active_students, absent_days_sum)
+        SELECT r.mess_id, sa.month, sa.year, r.total_students, r.active_students,
+               SUM(COALESCE(sa.absent_days, 0))
+        FROM mess_month_rollup r
+        JOIN hostels h ON h.mess_id = r.mess_id
+        JOIN students s ON s.hostel_id = h.id AND s.is_active = 1
+        JOIN student_attendance sa ON sa.student_id = s.id
+        """;
+
+    private static final String ROLLUP_ADD_STUDENT = """
+        INSERT INTO mess_month_rollup (mess_id, month, year)
+        SELECT mess_id, 0, 0 FROM hostels WHERE id = new.hostel_id AND mess_id IS NOT NULL
+        ON CONFLICT (mess_id, year, month) DO NOTHING;
+        UPDATE mess_month_rollup
+        SET total_students = total_students + 1,
+            active_students = active_students + (new.is_active = 1)
+        WHERE mess_id = (SELECT mess_id FROM hostels WHERE id = new.hostel_id);
+        INSERT INTO mess_month_rollup (mess_id, month, year, total_students, active_students, absent_days_sum)
+        SELECT r.mess_id, sa.month, sa.year, r.total_students, r.active_students, COALESCE(sa.absent_days, 0)
+        FROM student_attendance sa
+        JOIN mess_month_rollup r ON r.year = 0 AND r.month = 0
+            AND r.mess_id = (SELECT mess_id FROM hostels WHERE id = new.hostel_id)
+        WHERE sa.student_id = new.id AND new.is_active = 1
+        ON CONFLICT (mess_id, year, month) DO UPDATE
+        SET absent_days_sum = absent_days_sum + excluded.absent_days_sum;
+        """;
+
+    private static final String ROLLUP_REMOVE_STUDENT = """
+        UPDATE mess_month_rollup
+        SET absent_days_sum = absent_days_sum - COALESCE(sa.absent_days, 0)
+        FROM student_attendance sa
+        WHERE old.is_active = 1
+          AND sa.student_id = old.id
+          AND mess_month_rollup.mess_id = (SELECT mess_id FROM hostels WHERE id = old.hostel_id)
+          AND mess_month_rollup.year = sa.year
+          AND mess_month_rollup.month = sa.month;
+        UPDATE mess_month_rollup
+        SET total_students = total_students - 1,
+            active_students = active_students - (old.is_active = 1)
+        WHERE mess_id = (SELECT mess_id FROM hostels WHERE id = old.hostel_id);
+        """;
+
+    private static final String ROLLUP_ADD_ATTENDANCE = """
+        INSERT INTO mess_month_rollup (mess_id, month, year, total_students, active_students, absent_days_sum)
+        SELECT r.mess_id, new.month, new.year, r.total_students, r.active_students, COALESCE(new.absent_days, 0)
+        FROM students s
+        JOIN hostels h ON h.id = s.hostel_id
+        JOIN mess_month_rollup r ON r.mess_id = h.mess_id AND r.year = 0 AND r.month = 0
+        WHERE s.id = new.student_id AND s.is_active = 1
+        ON CONFLICT (mess_id, year, month) DO UPDATE
+        SET absent_days_sum = absent_days_sum + excluded.absent_days_sum;
+        """;
+
+    private static final String ROLLUP_REMOVE_ATTENDANCE = """
+        UPDATE mess_month_rollup
+        SET absent_days_sum = absent_days_sum - COALESCE(old.absent_days, 0)
+        WHERE mess_id = (SELECT h.mess_id FROM students s JOIN hostels h ON h.id = s.hostel_id
+                         WHERE s.id = old.student_id AND s.is_active = 1)
+          AND year = old.year
+          AND month = old.month;
+        """;
+
+    // ===== VERSIONED SCHEMA CHANGES =====
+    // Each entry is one schema version, tracked in PRAGMA user_version.
+    // Append new versions at the end; never edit an applied one.
+    private static final String[][] SCHEMA_VERSIONS = {
+        // v1: secondary indexes for the hot dashboard / billing filters
+        {
+            "CREATE INDEX IF NOT EXISTS idx_students_hostel_active " +
+                    "ON students (hostel_id, is_active)",
+            "CREATE INDEX IF NOT EXISTS idx_hostels_mess " +
+                    "ON hostels (mess_id)",
+            // Covers the monthly absent-days sum without touching the table
+            "CREATE INDEX IF NOT EXISTS idx_attendance_period " +
+                    "ON student_attendance (month, year, student_id, absent_days, mess_days)",
+            "ANALYZE"
+        },
+        // v2: trigram full-text index over student names and entry numbers
+        {
+            "CREATE VIRTUAL TABLE IF NOT EXISTS students_fts USING fts5(" +
+                    "entry_number, name, content='students', content_rowid='id', tokenize='trigram')",
+            "CREATE TRIGGER IF NOT EXISTS students_fts_insert AFTER INSERT ON students BEGIN " +
+                    "INSERT INTO students_fts (rowid, entry_number, name) " +
+                    "VALUES (new.id, new.entry_number, new.name); END",
+            "CREATE TRIGGER IF NOT EXISTS students_fts_delete AFTER DELETE ON students BEGIN " +
+                    "INSERT INTO students_fts (students_fts, rowid, entry_number, name) " +
+                    "VALUES ('delete', old.id, old.entry_number, old.name); END",
+            "CREATE TRIGGER IF NOT EXISTS students_fts_update AFTER UPDATE OF entry_number, name ON students BEGIN " +
+                    "INSERT INTO students_fts (students_fts, rowid, entry_number, name) " +
+                    "VALUES ('delete', old.id, old.entry_number, old.name); " +
+                    "INSERT INTO students_fts (rowid, entry_number, name) " +
+                    "VALUES (new.id, new.entry_number, new.name); END",
+            "INSERT INTO students_fts (students_fts) VALUES ('rebuild')"
+        },
+        // v3: bills become a ledger of finalized mess bills, one row per mess and month
+        {
+            "ALTER TABLE bills ADD COLUMN mess_id INTEGER REFERENCES messes(id)",
+            "ALTER TABLE bills ADD COLUMN hostel_count INTEGER NOT NULL DEFAULT 0",
+            "ALTER TABLE bills ADD COLUMN registered_students INTEGER NOT NULL DEFAULT 0",
+            "ALTER TABLE bills ADD COLUMN operating_days INTEGER NOT NULL DEFAULT 0",
+            "ALTER TABLE bills ADD COLUMN total_absent_days INTEGER NOT NULL DEFAULT 0",
+            "CREATE UNIQUE INDEX IF NOT EXISTS idx_bills_mess_period " +
+                    "ON bills (mess_id, year, month)",
+            // History across all messes, newest month first
+            "CREATE INDEX IF NOT EXISTS idx_bills_period " +
+                    "ON bills (year, month, mess_id)"
+        },
+        // v4: per-mess monthly rollup of student counts and absent days, kept by triggers
+        {
+            // month = 0, year = 0 is the mess's own row, present even before any attendance.
+            // Student counts are the same on every row of a mess; absent_days_sum is per month.
+            """
+            CREATE TABLE IF NOT EXISTS mess_month_rollup (
+                mess_id INTEGER NOT NULL,
+                month INTEGER NOT NULL,
+                year INTEGER NOT NULL,
+                total_students INTEGER NOT NULL DEFAULT 0,
+                active_students INTEGER NOT NULL DEFAULT 0,
+                absent_days_sum INTEGER NOT NULL DEFAULT 0,
+                PRIMARY KEY (mess_id, year, month)
+            ) WITHOUT ROWID
+            """,
+            ROLLUP_BACKFILL_MESSES + " WHERE h.mess_id IS NOT NULL GROUP BY h.mess_id",
+            ROLLUP_BACKFILL_MONTHS + " WHERE r.year = 0 AND r.month = 0 GROUP BY r.mess_id, sa.year, sa.month",
+
+            // Students: remove the old row's share, then add the new row's share
+            "CREATE TRIGGER IF NOT EXISTS rollup_student_insert AFTER INSERT ON students BEGIN "
+                    + ROLLUP_ADD_STUDENT + " END",
+            "CREATE TRIGGER IF NOT EXISTS rollup_student_delete AFTER DELETE ON students BEGIN "
+                    + ROLLUP_REMOVE_STUDENT + " END",
+            "CREATE TRIGGER IF NOT EXISTS rollup_student_update AFTER UPDATE OF hostel_id, is_active ON students BEGIN "
+                    + ROLLUP_REMOVE_STUDENT + ROLLUP_ADD_STUDENT + " END",
+
+            // Attendance: only active students count towards a mess's absent days
+            "CREATE TRIGGER IF NOT EXISTS rollup_attendance_insert AFTER INSERT ON student_attendance BEGIN "
+                    + ROLLUP_ADD_ATTENDANCE + " END",
+            "CREATE TRIGGER IF NOT EXISTS rollup_attendance_delete AFTER DELETE ON student_attendance BEGIN "
+                    + ROLLUP_REMOVE_ATTENDANCE + " END",
+            "CREATE TRIGGER IF NOT EXISTS rollup_attendance_update "
+                    + "AFTER UPDATE OF student_id, month, year, absent_days ON student_attendance BEGIN "
+                    + ROLLUP_REMOVE_ATTENDANCE + ROLLUP_ADD_ATTENDANCE + " END",
+
+            // A hostel moving between messes is rare; rebuild both messes' rows
+            "CREATE TRIGGER IF NOT EXISTS rollup_hostel_move AFTER UPDATE OF mess_id ON hostels BEGIN "
+                    + "DELETE FROM mess_month_rollup WHERE mess_id IN (old.mess_id, new.mess_id); "
+                    + ROLLUP_BACKFILL_MESSES + " WHERE h.mess_id IN (old.mess_id, new.mess_id) GROUP BY h.mess_id; "
+                    + ROLLUP_BACKFILL_MONTHS + " WHERE r.year = 0 AND r.month = 0 AND r.mess_id IN (old.mess_id, new.mess_id) "
+                    + "GROUP BY r.mess_id, sa.year, sa.month; END",
+            "ANALYZE mess_month_rollup"
+        },
+        // v5: student imports are staged chunk by chunk, then applied in one transaction
+        {
+            """
+            CREATE TABLE IF NOT EXISTS student_import_staging (
+                import_id TEXT NOT NULL,
+                seq INTEGER NOT NULL,
+                row_number INTEGER NOT NULL,
+                entry_number TEXT,
+                name TEXT,
+                room_number TEXT,
+                phone TEXT,
+                email TEXT,
+                PRIMARY KEY (import_id, seq)
+            ) WITHOUT ROWID
+            """,
+            // Imports check entry numbers against other hostels case-insensitively, a chunk at a time
+            "CREATE INDEX IF NOT EXISTS idx_students_entry_nocase " +
+                    "ON students (entry_number COLLATE NOCASE)"
+        },
+        // v6: entry numbers are unique ignoring case, the rule imports already check
+        {
+            // Older rows that differ only in case keep their data but get a visible suffix to fix by hand
+            "UPDATE students SET entry_number = entry_number || '-DUP' || id " +
+                    "WHERE EXISTS (SELECT 1 FROM students t " +
+                    "WHERE t.entry_number = students.entry_number COLLATE NOCASE AND t.id < students.id)",
+            "DROP INDEX IF EXISTS idx_students_entry_nocase",
+            // INSERT OR REPLACE now replaces a student whose entry number differs only in case
+            "CREATE UNIQUE INDEX IF NOT EXISTS idx_students_entry_nocase " +
+                    "ON students (entry_number COLLATE NOCASE)"
+        },
+        // v7: finalized bills keep the student days they were billed on
+        {
+            // A range bill counts each student from the day they joined, so it isn't always students x days.
+            // bills.hostel_id stays NOT NULL from per-hostel bills; mess bills store the mess's lowest hostel id.
+            "ALTER TABLE bills ADD COLUMN total_student_days INTEGER NOT NULL DEFAULT 0",
+            "UPDATE bills SET total_student_days = total_students * operating_days"
+        },
+        // v8: adding or removing a hostel rebuilds its mess's rollup rows, as a move already does
+        {
+            // Students can still point at a hostel id that is deleted or later reused
+            "CREATE TRIGGER IF NOT EXISTS rollup_hostel_insert AFTER INSERT ON hostels "
+                    + "WHEN new.mess_id IS NOT NULL BEGIN "
+                    + "DELETE FROM mess_month_rollup WHERE mess_id = new.mess_id; "
+                    + ROLLUP_BACKFILL_MESSES + " WHERE h.mess_id = new.mess_id GROUP BY h.mess_id; "
+                    + ROLLUP_BACKFILL_MONTHS + " WHERE r.year = 0 AND r.month = 0 AND r.mess_id = new.mess_id "
+                    + "GROUP BY r.mess_id, sa.year, sa.month; END",
+            "CREATE TRIGGER IF NOT EXISTS rollup_hostel_delete AFTER DELETE ON hostels "
+                    + "WHEN old.mess_id IS NOT NULL BEGIN "
+                    + "DELETE FROM mess_month_rollup WHERE mess_id = old.mess_id; "
+                    + ROLLUP_BACKFILL_MESSES + " WHERE h.mess_id = old.mess_id GROUP BY h.mess_id; "
+                    + ROLLUP_BACKFILL_MONTHS + " WHERE r.year = 0 AND r.month = 0 AND r.mess_id = old.mess_id "
+                    + "GROUP BY r.mess_id, sa.year, sa.month; END"
+        }
+    };
+
+    private static void applySchemaVersions(Connection connection) throws SQLException {
+        int current;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            current = rs.next() ? rs.getInt(1) : 0;
+        }
+
+        for (int version = current; version < SCHEMA_VERSIONS.length; version++) {
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                for (String sql : SCHEMA_VERSIONS[version]) {
+                    stmt.execute(sql);
+                }
+                stmt.execute("PRAGMA user_version = " + (version + 1));
+                connection.commit();
+                System.out.println("✓ Schema upgraded to version " + (version + 1));
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
     // ===== DEFAULT DATA =====
-    private static void insertDefaultData() throws SQLException {
+    private static void insertDefaultData(Connection connection) throws SQLException {
         Statement stmt = connection.createStatement();
-        ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM hostels");
 
-        if (rs.next() && rs.getInt(1) > 0) {
-            return; // Data already exists
+        // Closed right away: an open read blocks later schema changes (DROP INDEX)
+        try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM hostels")) {
+            if (rs.next() && rs.getInt(1) > 0) {
+                return; // Data already exists
+            }
         }
 
         String[][] hostels = {
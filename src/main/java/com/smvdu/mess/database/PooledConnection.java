@@ -0,0 +1,99 @@
+package com.smvdu.mess.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A connection handed out by {@link DatabaseConnection}.
+ * Closing it returns it to the manager instead of closing the underlying
+ * SQLite handle. Prepared statements are cached per connection, so callers
+ * must not close statements obtained from {@link #prepare(String)}.
+ */
+public class PooledConnection implements AutoCloseable {
+
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    private final Connection connection;
+    private final Consumer<PooledConnection> onRelease;
+    private int holds;
+
+    private final Map<String, PreparedStatement> statements =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > STATEMENT_CACHE_SIZE) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+    PooledConnection(Connection connection, Consumer<PooledConnection> onRelease) {
+        this.connection = connection;
+        this.onRelease = onRelease;
+    }
+
+    /**
+     * Get a cached prepared statement for this connection, with parameters cleared
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement ps = statements.get(sql);
+        if (ps == null || ps.isClosed()) {
+            ps = connection.prepareStatement(sql);
+            statements.put(sql, ps);
+        } else {
+            ps.clearParameters();
+        }
+        return ps;
+    }
+
+    /**
+     * Raw JDBC connection, for transaction control and one-off statements
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    // ===== HOLD COUNTING (re-entrant borrowing on one thread) =====
+
+    void acquire() {
+        holds++;
+    }
+
+    boolean isHeld() {
+        return holds > 0;
+    }
+
+    @Override
+    public void close() {
+        if (holds > 0) {
+            holds--;
+            onRelease.accept(this);
+        }
+    }
+
+    void closePhysical() {
+        for (PreparedStatement ps : statements.values()) {
+            closeQuietly(ps);
+        }
+        statements.clear();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException ignored) {
+            // Statement is being discarded anyway
+        }
+    }
+}
@@ -1,63 +1,201 @@
 package com.smvdu.mess.models;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
-public class Bill {
-    private int id;
-    private int hostelId;
-    private String hostelName;
-    private int month;
-    private int year;
-    private int totalStudents;
-    private int totalMessDays;
-    private double perDayRate;
-    private double subtotal;
-    private double gstPercent;
-    private double gstAmount;
-    private double totalAmount;
-    private double fineAmount;
-    private LocalDateTime generatedAt;
-    
-    // Constructor
-    public Bill(int hostelId, int month, int year, int totalStudents, 
-                int totalMessDays, double perDayRate, double gstPercent, double fineAmount) {
-        this.hostelId = hostelId;
-        this.month = month;
-        this.year = year;
-        this.totalStudents = totalStudents;
-        this.totalMessDays = totalMessDays;
-        this.perDayRate = perDayRate;
-        this.gstPercent = gstPercent;
-        this.fineAmount=fineAmount;
-        calculateBill();
+/**
+ * A mess bill: an open month worked out by BillCalculationService, or a
+ * finalized month read back from the ledger. Immutable; money is BigDecimal
+ * rounded to paise, and a null rate or GST % means it varies across months.
+ */
+public final class Bill {
+    private static final BigDecimal ZERO_MONEY = new BigDecimal("0.00");
+
+    private final int id;
+    private final int messId;
+    private final int hostelId;     // 0 for a mess bill
+    private final int month;
+    private final int year;
+
+    // Printed on the bill
+    private final String messName;
+    private final String messCode;
+    private final LocalDate periodStart;
+    private final LocalDate periodEnd;
+
+    private final int hostelCount;
+    private final int registeredStudents;
+    private final int totalStudents;
+    private final int operatingDays;
+    private final int totalStudentDays;
+    private final int totalAbsentDays;
+    private final int totalMessDays;
+
+    private final BigDecimal perDayRate;
+    private final BigDecimal subtotal;
+    private final BigDecimal gstPercent;
+    private final BigDecimal gstAmount;
+    private final BigDecimal fineAmount;
+    private final BigDecimal totalAmount;
+
+    private final LocalDateTime generatedAt;
+
+    private Bill(Builder b) {
+        this.id = b.id;
+        this.messId = b.messId;
+        this.hostelId = b.hostelId;
+        this.month = b.month;
+        this.year = b.year;
+        this.messName = b.messName;
+        this.messCode = b.messCode;
+        this.periodStart = b.periodStart;
+        this.periodEnd = b.periodEnd;
+        this.hostelCount = b.hostelCount;
+        this.registeredStudents = b.registeredStudents;
+        this.totalStudents = b.totalStudents;
+        this.operatingDays = b.operatingDays;
+        this.totalStudentDays = b.totalStudentDays;
+        this.totalAbsentDays = b.totalAbsentDays;
+        this.totalMessDays = b.totalMessDays;
+        this.perDayRate = b.perDayRate;
+        this.subtotal = b.subtotal;
+        this.gstPercent = b.gstPercent;
+        this.gstAmount = b.gstAmount;
+        this.fineAmount = b.fineAmount;
+        this.totalAmount = b.totalAmount;
+        this.generatedAt = b.generatedAt;
+    }
+
+    /**
+     * Start a bill for a mess and month; unset counts are 0, unset money is 0.00
+     */
+    public static Builder builder(int messId, int month, int year) {
+        Builder b = new Builder();
+        b.messId = messId;
+        b.month = month;
+        b.year = year;
+        return b;
+    }
+
+    /**
+     * A builder holding this bill's values, to derive a changed copy
+     */
+    public Builder toBuilder() {
+        Builder b = builder(messId, month, year);
+        b.id = id;
+        b.hostelId = hostelId;
+        b.messName = messName;
+        b.messCode = messCode;
+        b.periodStart = periodStart;
+        b.periodEnd = periodEnd;
+        b.hostelCount = hostelCount;
+        b.registeredStudents = registeredStudents;
+        b.totalStudents = totalStudents;
+        b.operatingDays = operatingDays;
+        b.totalStudentDays = totalStudentDays;
+        b.totalAbsentDays = totalAbsentDays;
+        b.totalMessDays = totalMessDays;
+        b.perDayRate = perDayRate;
+        b.subtotal = subtotal;
+        b.gstPercent = gstPercent;
+        b.gstAmount = gstAmount;
+        b.fineAmount = fineAmount;
+        b.totalAmount = totalAmount;
+        b.generatedAt = generatedAt;
+        return b;
     }
-    
-    private void calculateBill() {
-        this.subtotal = totalMessDays * perDayRate;
-        this.gstAmount = subtotal * (gstPercent / 100);
-        this.totalAmount = subtotal + gstAmount+ fineAmount;
+
+    public static final class Builder {
+        private int id;
+        private int messId;
+        private int hostelId;
+        private int month;
+        private int year;
+        private String messName;
+        private String messCode;
+        private LocalDate periodStart;
+        private LocalDate periodEnd;
+        private int hostelCount;
+        private int registeredStudents;
+        private int totalStudents;
+        private int operatingDays;
+        private int totalStudentDays;
+        private int totalAbsentDays;
+        private int totalMessDays;
+        private BigDecimal perDayRate = BigDecimal.ZERO;
+        private BigDecimal subtotal = ZERO_MONEY;
+        private BigDecimal gstPercent = BigDecimal.ZERO;
+        private BigDecimal gstAmount = ZERO_MONEY;
+        private BigDecimal fineAmount = ZERO_MONEY;
+        private BigDecimal totalAmount = ZERO_MONEY;
+        private LocalDateTime generatedAt;
+
+        private Builder() {
+        }
+
+        /** Ledger row id; leave unset for an open bill */
+        public Builder id(int id) { this.id = id; return this; }
+        public Builder hostelId(int hostelId) { this.hostelId = hostelId; return this; }
+
+        /** Name, code and period printed on the bill */
+        public Builder printedAs(String messName, String messCode, LocalDate periodStart, LocalDate periodEnd) {
+            this.messName = messName;
+            this.messCode = messCode;
+            this.periodStart = periodStart;
+            this.periodEnd = periodEnd;
+            return this;
+        }
+
+        public Builder hostelCount(int hostelCount) { this.hostelCount = hostelCount; return this; }
+        public Builder registeredStudents(int count) { this.registeredStudents = count; return this; }
+        public Builder totalStudents(int count) { this.totalStudents = count; return this; }
+        public Builder operatingDays(int days) { this.operatingDays = days; return this; }
+        public Builder totalStudentDays(int days) { this.totalStudentDays = days; return this; }
+        public Builder totalAbsentDays(int days) { this.totalAbsentDays = days; return this; }
+        public Builder totalMessDays(int days) { this.totalMessDays = days; return this; }
+
+        /** Null when the rate differs between the months billed */
+        public Builder perDayRate(BigDecimal rate) { this.perDayRate = rate; return this; }
+        public Builder subtotal(BigDecimal amount) { this.subtotal = amount; return this; }
+
+        /** Null when GST % differs between the months billed */
+        public Builder gstPercent(BigDecimal percent) { this.gstPercent = percent; return this; }
+        public Builder gstAmount(BigDecimal amount) { this.gstAmount = amount; return this; }
+        public Builder fineAmount(BigDecimal amount) { this.fineAmount = amount; return this; }
+        public Builder totalAmount(BigDecimal amount) { this.totalAmount = amount; return this; }
+        public Builder generatedAt(LocalDateTime at) { this.generatedAt = at; return this; }
+
+        public Bill build() {
+            return new Bill(this);
+        }
     }
-    
+
     // Getters
     public int getId() { return id; }
+    public int getMessId() { return messId; }
     public int getHostelId() { return hostelId; }
-    public String getHostelName() { return hostelName; }
     public int getMonth() { return month; }
     public int getYear() { return year; }
+    public String getMessName() { return messName; }
+    public String getMessCode() { return messCode; }
+    public LocalDate getPeriodStart() { return periodStart; }
+    public LocalDate getPeriodEnd() { return periodEnd; }
+    public int getHostelCount() { return hostelCount; }
+    public int getRegisteredStudents() { return registeredStudents; }
     public int getTotalStudents() { return totalStudents; }
+    public int getOperatingDays() { return operatingDays; }
+    public int getTotalStudentDays() { return totalStudentDays; }
+    public int getTotalAbsentDays() { return totalAbsentDays; }
     public int getTotalMessDays() { return totalMessDays; }
-    public double getPerDayRate() { return perDayRate; }
-    public double getSubtotal() { return subtotal; }
-    public double getGstPercent() { return gstPercent; }
-    public double getGstAmount() { return gstAmount; }
-    public double getTotalAmount() { return totalAmount; }
-    public double getFineAmount() {return fineAmount;}
+    public BigDecimal getPerDayRate() { return perDayRate; }
+    public BigDecimal getSubtotal() { return subtotal; }
+    public BigDecimal getGstPercent() { return gstPercent; }
+    public BigDecimal getGstAmount() { return gstAmount; }
+    public BigDecimal getFineAmount() { return fineAmount; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
     public LocalDateTime getGeneratedAt() { return generatedAt; }
-    
-    
-    // Setters
-    public void setId(int id) { this.id = id; }
-    public void setHostelName(String hostelName) { this.hostelName = hostelName; }
-    public void setGeneratedAt(LocalDateTime generatedAt) { this.generatedAt = generatedAt; }
-    public void setFineAmount(double fineAmount) {this.fineAmount = fineAmount;}
+
+    // Only ledger rows have an id
+    public boolean isFinalized() { return id > 0; }
 }
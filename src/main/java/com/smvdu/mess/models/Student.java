@@ -7,59 +7,113 @@ import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
+/**
+ * Table adapter over a {@link StudentRecord}. A JavaFX property is only
+ * created the first time a table cell (or anything else) asks for it, so
+ * large lists stay light until rows are actually shown. Code that does not
+ * bind to the UI should use {@link #toRecord()} instead.
+ */
 public class Student {
-    private final IntegerProperty id;
-    private final StringProperty entryNumber;
-    private final StringProperty name;
-    private final IntegerProperty hostelId;
-    private final StringProperty roomNumber;
-    private final StringProperty phone;
-    private final StringProperty email;
-    private final BooleanProperty isActive;
-    private final IntegerProperty messDays;
-    private final IntegerProperty absentDays;
-    
-    public Student(int id, String entryNumber, String name, int hostelId, 
+    private StudentRecord record;
+
+    // Created on demand
+    private IntegerProperty idProperty;
+    private StringProperty entryNumberProperty;
+    private StringProperty nameProperty;
+    private IntegerProperty hostelIdProperty;
+    private StringProperty roomNumberProperty;
+    private StringProperty phoneProperty;
+    private StringProperty emailProperty;
+    private BooleanProperty isActiveProperty;
+    private IntegerProperty messDaysProperty;
+    private IntegerProperty absentDaysProperty;
+
+    public Student(StudentRecord record) {
+        this.record = record;
+    }
+
+    public Student(int id, String entryNumber, String name, int hostelId,
                    String roomNumber, String phone, String email, boolean isActive) {
-        this.id = new SimpleIntegerProperty(id);
-        this.entryNumber = new SimpleStringProperty(entryNumber);
-        this.name = new SimpleStringProperty(name);
-        this.hostelId = new SimpleIntegerProperty(hostelId);
-        this.roomNumber = new SimpleStringProperty(roomNumber);
-        this.phone = new SimpleStringProperty(phone);
-        this.email = new SimpleStringProperty(email);
-        this.isActive = new SimpleBooleanProperty(isActive);
-        this.messDays = new SimpleIntegerProperty(0);
-        this.absentDays = new SimpleIntegerProperty(0);
+        this(new StudentRecord(id, entryNumber, name, hostelId, roomNumber, phone, email, isActive, 0, 0));
+    }
+
+    /**
+     * The current values as an immutable record (no copy is made)
+     */
+    public StudentRecord toRecord() {
+        return record;
     }
-    
+
     // Property getters for TableView binding
-    public IntegerProperty idProperty() { return id; }
-    public StringProperty entryNumberProperty() { return entryNumber; }
-    public StringProperty nameProperty() { return name; }
-    public IntegerProperty hostelIdProperty() { return hostelId; }
-    public StringProperty roomNumberProperty() { return roomNumber; }
-    public StringProperty phoneProperty() { return phone; }
-    public StringProperty emailProperty() { return email; }
-    public BooleanProperty isActiveProperty() { return isActive; }
-    public IntegerProperty messDaysProperty() { return messDays; }
-    public IntegerProperty absentDaysProperty() { return absentDays; }
-    
-    // Standard getters
-    public int getId() { return id.get(); }
-    public String getEntryNumber() { return entryNumber.get(); }
-    public String getName() { return name.get(); }
-    public int getHostelId() { return hostelId.get(); }
-    public String getRoomNumber() { return roomNumber.get(); }
-    public String getPhone() { return phone.get(); }
-    public String getEmail() { return email.get(); }
-    public boolean isActive() { return isActive.get(); }
-    public int getMessDays() { return messDays.get(); }
-    public int getAbsentDays() { return absentDays.get(); }
+    public IntegerProperty idProperty() {
+        if (idProperty == null) idProperty = new SimpleIntegerProperty(this, "id", record.getId());
+        return idProperty;
+    }
+    public StringProperty entryNumberProperty() {
+        if (entryNumberProperty == null) entryNumberProperty = new SimpleStringProperty(this, "entryNumber", record.getEntryNumber());
+        return entryNumberProperty;
+    }
+    public StringProperty nameProperty() {
+        if (nameProperty == null) nameProperty = new SimpleStringProperty(this, "name", record.getName());
+        return nameProperty;
+    }
+    public IntegerProperty hostelIdProperty() {
+        if (hostelIdProperty == null) hostelIdProperty = new SimpleIntegerProperty(this, "hostelId", record.getHostelId());
+        return hostelIdProperty;
+    }
+    public StringProperty roomNumberProperty() {
+        if (roomNumberProperty == null) roomNumberProperty = new SimpleStringProperty(this, "roomNumber", record.getRoomNumber());
+        return roomNumberProperty;
+    }
+    public StringProperty phoneProperty() {
+        if (phoneProperty == null) phoneProperty = new SimpleStringProperty(this, "phone", record.getPhone());
+        return phoneProperty;
+    }
+    public StringProperty emailProperty() {
+        if (emailProperty == null) emailProperty = new SimpleStringProperty(this, "email", record.getEmail());
+        return emailProperty;
+    }
+    public BooleanProperty isActiveProperty() {
+        if (isActiveProperty == null) isActiveProperty = new SimpleBooleanProperty(this, "isActive", record.isActive());
+        return isActiveProperty;
+    }
+    public IntegerProperty messDaysProperty() {
+        if (messDaysProperty == null) {
+            messDaysProperty = new SimpleIntegerProperty(this, "messDays", record.getMessDays());
+            // Keep the record in step when a binding writes the property directly
+            messDaysProperty.addListener((obs, o, days) ->
+                record = record.withAttendance(days.intValue(), record.getAbsentDays()));
+        }
+        return messDaysProperty;
+    }
+    public IntegerProperty absentDaysProperty() {
+        if (absentDaysProperty == null) {
+            absentDaysProperty = new SimpleIntegerProperty(this, "absentDays", record.getAbsentDays());
+            absentDaysProperty.addListener((obs, o, days) ->
+                record = record.withAttendance(record.getMessDays(), days.intValue()));
+        }
+        return absentDaysProperty;
+    }
+
+    // Standard getters (identity fields never change once loaded)
+    public int getId() { return record.getId(); }
+    public String getEntryNumber() { return record.getEntryNumber(); }
+    public String getName() { return record.getName(); }
+    public int getHostelId() { return record.getHostelId(); }
+    public String getRoomNumber() { return record.getRoomNumber(); }
+    public String getPhone() { return record.getPhone(); }
+    public String getEmail() { return record.getEmail(); }
+    public boolean isActive() { return record.isActive(); }
+    public int getMessDays() { return record.getMessDays(); }
+    public int getAbsentDays() { return record.getAbsentDays(); }
 
-    
-    
     // Setters
-    public void setMessDays(int days) { messDays.set(days); }
-    public void setAbsentDays(int days) { absentDays.set(days); }
+    public void setMessDays(int days) {
+        record = record.withAttendance(days, record.getAbsentDays());
+        if (messDaysProperty != null) messDaysProperty.set(days);
+    }
+    public void setAbsentDays(int days) {
+        record = record.withAttendance(record.getMessDays(), days);
+        if (absentDaysProperty != null) absentDaysProperty.set(days);
+    }
 }
@@ -0,0 +1,56 @@
+package com.smvdu.mess.models;
+
+/**
+ * Immutable student data for paths that never bind to the UI
+ * (reports, exports, counting). No JavaFX objects are created.
+ *
+ * Room numbers repeat across many students of a hostel, so they are
+ * interned to share one String per distinct value.
+ */
+public final class StudentRecord {
+    private final int id;
+    private final String entryNumber;
+    private final String name;
+    private final int hostelId;
+    private final String roomNumber;
+    private final String phone;
+    private final String email;
+    private final boolean active;
+    private final int messDays;
+    private final int absentDays;
+
+    public StudentRecord(int id, String entryNumber, String name, int hostelId,
+                         String roomNumber, String phone, String email, boolean active,
+                         int messDays, int absentDays) {
+        this.id = id;
+        this.entryNumber = entryNumber;
+        this.name = name;
+        this.hostelId = hostelId;
+        this.roomNumber = roomNumber == null ? null : roomNumber.intern();
+        this.phone = phone;
+        this.email = email;
+        this.active = active;
+        this.messDays = messDays;
+        this.absentDays = absentDays;
+    }
+
+    /**
+     * Same student with different attendance figures
+     */
+    public StudentRecord withAttendance(int messDays, int absentDays) {
+        if (messDays == this.messDays && absentDays == this.absentDays) return this;
+        return new StudentRecord(id, entryNumber, name, hostelId, roomNumber, phone, email, active,
+                                 messDays, absentDays);
+    }
+
+    public int getId() { return id; }
+    public String getEntryNumber() { return entryNumber; }
+    public String getName() { return name; }
+    public int getHostelId() { return hostelId; }
+    public String getRoomNumber() { return roomNumber; }
+    public String getPhone() { return phone; }
+    public String getEmail() { return email; }
+    public boolean isActive() { return active; }
+    public int getMessDays() { return messDays; }
+    public int getAbsentDays() { return absentDays; }
+}
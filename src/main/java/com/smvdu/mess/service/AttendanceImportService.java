@@ -0,0 +1,197 @@
+package com.smvdu.mess.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.utils.MessUtils;
+
+/**
+ * Bulk attendance import for one mess and month from an
+ * entry_number / absent_days sheet.
+ *
+ * Entry numbers are resolved to active student ids with batched IN lookups
+ * limited to the mess's hostels, ignoring case as student imports do, and
+ * all rows are upserted in one transaction with a batched ON CONFLICT
+ * statement. Entries that match no student of the mess are reported back
+ * instead of being dropped silently.
+ */
+public class AttendanceImportService {
+
+    // Keeps each IN (...) well under SQLite's bound-parameter limit
+    private static final int LOOKUP_CHUNK = 500;
+
+    // Shared with AttendanceWriteQueue
+    static final String UPSERT_SQL =
+        "INSERT INTO student_attendance " +
+        "(student_id, month, year, total_days, mess_days, absent_days) " +
+        "VALUES (?,?,?,?,?,?) " +
+        "ON CONFLICT(student_id, month, year) DO UPDATE SET " +
+        "total_days = excluded.total_days, " +
+        "mess_days = excluded.mess_days, " +
+        "absent_days = excluded.absent_days, " +
+        "updated_at = CURRENT_TIMESTAMP";
+
+    /**
+     * One row from an attendance sheet, as read from the file
+     */
+    public static class AttendanceRow {
+        public final int rowNumber;
+        public final String entryNumber;
+        public final String absentDays;
+
+        public AttendanceRow(int rowNumber, String entryNumber, String absentDays) {
+            this.rowNumber = rowNumber;
+            this.entryNumber = entryNumber;
+            this.absentDays = absentDays;
+        }
+    }
+
+    public static class Result {
+        public final int updated;
+        public final int errors;
+        public final List<String> unmatched;
+
+        public Result(int updated, int errors, List<String> unmatched) {
+            this.updated = updated;
+            this.errors = errors;
+            this.unmatched = unmatched;
+        }
+    }
+
+    /**
+     * Import attendance for every student of the mess in the sheet.
+     * Row problems are passed to log; nothing is written if the upsert fails.
+     */
+    public static Result importAttendance(int messId, int month, int year,
+                                          List<AttendanceRow> rows, Consumer<String> log) throws SQLException {
+        int operatingDays = MessUtils.getOperatingDays(messId, month, year);
+
+        // Validate absent days before touching the database
+        Map<String, Integer> absentByEntry = new HashMap<>();
+        int errors = 0;
+
+        for (AttendanceRow row : rows) {
+            if (row.entryNumber.isEmpty()) {
+                log.accept("Skipping row " + row.rowNumber + ": Missing entry number");
+                errors++;
+                continue;
+            }
+
+            Integer absent = parseDays(row.absentDays);
+            if (absent == null || absent < 0 || absent > operatingDays) {
+                log.accept("Skipping row " + row.rowNumber + ": Absent days must be 0-" + operatingDays
+                        + ", got '" + row.absentDays + "'");
+                errors++;
+                continue;
+            }
+
+            if (absentByEntry.put(row.entryNumber.toUpperCase(Locale.ROOT), absent) != null) {
+                log.accept("Row " + row.rowNumber + ": " + row.entryNumber + " repeated, using the later value");
+            }
+        }
+
+        Map<String, Integer> studentIds = resolveStudentIds(messId, new ArrayList<>(absentByEntry.keySet()));
+
+        List<String> unmatched = new ArrayList<>();
+        for (String entry : absentByEntry.keySet()) {
+            if (!studentIds.containsKey(entry)) {
+                unmatched.add(entry);
+            }
+        }
+        Collections.sort(unmatched);
+
+        // A queued inline edit written after the import would overwrite the imported value
+        AttendanceWriteQueue.flushNow();
+
+        int updated = 0;
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+
+            try {
+                PreparedStatement ps = conn.prepare(UPSERT_SQL);
+
+                for (Map.Entry<String, Integer> entry : absentByEntry.entrySet()) {
+                    Integer studentId = studentIds.get(entry.getKey());
+                    if (studentId == null) continue;
+
+                    int absent = entry.getValue();
+                    ps.setInt(1, studentId);
+                    ps.setInt(2, month);
+                    ps.setInt(3, year);
+                    ps.setInt(4, operatingDays);
+                    ps.setInt(5, operatingDays - absent);
+                    ps.setInt(6, absent);
+                    ps.addBatch();
+                    updated++;
+                }
+
+                ps.executeBatch();
+                connection.commit();
+
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+
+        MessStatsCache.invalidate(messId, month, year);
+        return new Result(updated, errors, unmatched);
+    }
+
+    /**
+     * Map upper-cased entry numbers to ids for active students of this mess, in chunks
+     */
+    private static Map<String, Integer> resolveStudentIds(int messId, List<String> entries) throws SQLException {
+        Map<String, Integer> ids = new HashMap<>();
+
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            for (int from = 0; from < entries.size(); from += LOOKUP_CHUNK) {
+                List<String> chunk = entries.subList(from, Math.min(entries.size(), from + LOOKUP_CHUNK));
+
+                PreparedStatement ps = conn.prepare(lookupSql(chunk.size()));
+                ps.setInt(1, messId);
+                for (int i = 0; i < chunk.size(); i++) {
+                    ps.setString(i + 2, chunk.get(i));
+                }
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        ids.put(rs.getString("entry_number").toUpperCase(Locale.ROOT), rs.getInt("id"));
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    // Chunks share one cached statement per size
+    static String lookupSql(int size) {
+        return "SELECT id, entry_number FROM students " +
+               "WHERE hostel_id IN (SELECT id FROM hostels WHERE mess_id = ?) AND is_active = 1 " +
+               "AND entry_number COLLATE NOCASE IN (" + "?,".repeat(size - 1) + "?)";
+    }
+
+    private static Integer parseDays(String text) {
+        try {
+            double value = Double.parseDouble(text.trim());
+            if (value != Math.floor(value)) return null; // No half days
+            return (int) value;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
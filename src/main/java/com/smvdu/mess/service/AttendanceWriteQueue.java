@@ -0,0 +1,238 @@
+package com.smvdu.mess.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+
+/**
+ * Write-behind queue for attendance edits.
+ *
+ * Edits are queued per student and month; a newer edit for the same student
+ * replaces the pending one, so rapid manual entry turns into one batched
+ * upsert per flush instead of one transaction per keystroke. Flushes run on
+ * a single background thread shortly after the last edit, and
+ * {@link #flushNow()} writes everything immediately (used on shutdown).
+ *
+ * A failed flush keeps its edits queued and is retried up to
+ * {@link #MAX_ATTEMPTS} times; after that the failure listener is told and
+ * retrying waits for the next edit or flush, instead of looping forever.
+ */
+public class AttendanceWriteQueue {
+
+    private static final long FLUSH_DELAY_MS = 500;
+    private static final long RETRY_DELAY_MS = 2000;
+    static final int MAX_ATTEMPTS = 5;
+
+    private static final class PendingWrite {
+        final int messId;
+        final int studentId;
+        final int month;
+        final int year;
+        final int totalDays;
+        final int messDays;
+        final int absentDays;
+
+        PendingWrite(int messId, int studentId, int month, int year,
+                     int totalDays, int messDays, int absentDays) {
+            this.messId = messId;
+            this.studentId = studentId;
+            this.month = month;
+            this.year = year;
+            this.totalDays = totalDays;
+            this.messDays = messDays;
+            this.absentDays = absentDays;
+        }
+
+        long key() {
+            return ((long) studentId << 32) | ((long) year << 4) | month;
+        }
+    }
+
+    // Insertion-ordered so writes keep the order they were made in
+    private static final Map<Long, PendingWrite> PENDING = new LinkedHashMap<>();
+
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "attendance-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final Object FLUSH_LOCK = new Object();
+
+    private static boolean flushScheduled;
+    private static List<PendingWrite> inFlight = List.of(); // Taken from PENDING, not yet committed
+    private static int failedAttempts;
+
+    private static volatile Consumer<Exception> failureListener = e -> { };
+
+    /**
+     * Called on the writer thread when edits still can't be written after
+     * {@link #MAX_ATTEMPTS} tries. The edits stay queued.
+     */
+    public static void setFailureListener(Consumer<Exception> listener) {
+        failureListener = listener;
+    }
+
+    /**
+     * Queue an attendance value; replaces any pending value for the same student and month
+     */
+    public static void submit(int messId, int studentId, int month, int year,
+                              int totalDays, int messDays, int absentDays) {
+        PendingWrite write = new PendingWrite(messId, studentId, month, year, totalDays, messDays, absentDays);
+
+        synchronized (PENDING) {
+            PENDING.remove(write.key()); // Re-insert at the end
+            PENDING.put(write.key(), write);
+            scheduleFlush(FLUSH_DELAY_MS);
+        }
+    }
+
+    /**
+     * Write pending edits on the background thread without the usual delay
+     */
+    public static void flushSoon() {
+        WRITER.execute(AttendanceWriteQueue::flushNow);
+    }
+
+    /**
+     * Number of edits not yet written
+     */
+    public static int pendingCount() {
+        synchronized (PENDING) {
+            return PENDING.size();
+        }
+    }
+
+    /**
+     * Whether edits for this mess and month are queued or being written.
+     * Readers only need to {@link #flushNow()} when this is true.
+     */
+    public static boolean hasPending(int messId, int month, int year) {
+        synchronized (PENDING) {
+            return anyFor(PENDING.values(), messId, month, year) || anyFor(inFlight, messId, month, year);
+        }
+    }
+
+    /**
+     * Whether edits for this month are queued or being written, for any mess
+     */
+    public static boolean hasPending(int month, int year) {
+        return hasPending(0, month, year);
+    }
+
+    // A messId of 0 matches every mess
+    private static boolean anyFor(Iterable<PendingWrite> writes, int messId, int month, int year) {
+        for (PendingWrite write : writes) {
+            if ((messId == 0 || write.messId == messId) && write.month == month && write.year == year) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Write all pending edits on the calling thread
+     */
+    public static void flushNow() {
+        // One flush at a time, so an older batch can never land after a newer one
+        synchronized (FLUSH_LOCK) {
+            List<PendingWrite> batch;
+            synchronized (PENDING) {
+                if (PENDING.isEmpty()) return;
+                batch = new ArrayList<>(PENDING.values());
+                PENDING.clear();
+                inFlight = batch;
+            }
+
+            try {
+                write(batch);
+                synchronized (PENDING) {
+                    inFlight = List.of();
+                    failedAttempts = 0;
+                }
+            } catch (SQLException | RuntimeException e) {
+                e.printStackTrace();
+                requeue(batch, e);
+            }
+        }
+    }
+
+    private static void scheduleFlush(long delayMs) {
+        // Called with PENDING locked
+        if (flushScheduled) return;
+        flushScheduled = true;
+
+        WRITER.schedule(() -> {
+            synchronized (PENDING) {
+                flushScheduled = false;
+            }
+            flushNow();
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static void requeue(List<PendingWrite> failed, Exception cause) {
+        synchronized (PENDING) {
+            inFlight = List.of();
+            for (PendingWrite write : failed) {
+                // Edits made while the flush was running are newer, keep those
+                PENDING.putIfAbsent(write.key(), write);
+            }
+            if (++failedAttempts < MAX_ATTEMPTS) {
+                scheduleFlush(RETRY_DELAY_MS);
+                return;
+            }
+            failedAttempts = 0; // The next edit or flush starts a fresh round of attempts
+        }
+        failureListener.accept(cause);
+    }
+
+    private static void write(List<PendingWrite> batch) throws SQLException {
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+
+            try {
+                PreparedStatement ps = conn.prepare(AttendanceImportService.UPSERT_SQL);
+                for (PendingWrite write : batch) {
+                    ps.setInt(1, write.studentId);
+                    ps.setInt(2, write.month);
+                    ps.setInt(3, write.year);
+                    ps.setInt(4, write.totalDays);
+                    ps.setInt(5, write.messDays);
+                    ps.setInt(6, write.absentDays);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                connection.commit();
+
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback(); // Or setAutoCommit(true) would commit half a batch
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+
+        // One invalidation per mess and month touched
+        Set<Long> invalidated = new HashSet<>();
+        for (PendingWrite write : batch) {
+            long key = ((long) write.messId << 32) | ((long) write.year << 4) | write.month;
+            if (invalidated.add(key)) {
+                MessStatsCache.invalidate(write.messId, write.month, write.year);
+            }
+        }
+    }
+}
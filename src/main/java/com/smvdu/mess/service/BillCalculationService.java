@@ -0,0 +1,124 @@
+package com.smvdu.mess.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+import com.smvdu.mess.models.Bill;
+
+/**
+ * Works out a mess bill once, as an immutable {@link Bill}.
+ *
+ * Money is BigDecimal: the subtotal and GST are each rounded to paise
+ * (half up) before they are added, so the screen, the PDF and the ledger
+ * all show the same figures. Callers format the Bill; nothing is parsed
+ * back from text.
+ */
+public class BillCalculationService {
+
+    private static final int MONEY_SCALE = 2;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    /**
+     * Bill an open month for a period with the given days, rates and fine
+     */
+    public static Bill calculate(MessStats stats, String messName, String messCode,
+                                 LocalDate periodStart, LocalDate periodEnd, int billDays,
+                                 double perDayRate, double gstPercent, double fineAmount) {
+        int studentDays = stats.getActiveStudents() * billDays;
+        int messDays = Math.max(0, studentDays - stats.getTotalAbsentDays());
+
+        BigDecimal rate = BigDecimal.valueOf(perDayRate);
+        BigDecimal gst = BigDecimal.valueOf(gstPercent);
+        BigDecimal subtotal = subtotal(messDays, rate);
+        BigDecimal gstAmount = gstOn(subtotal, gst);
+        BigDecimal fine = money(fineAmount);
+
+        return Bill.builder(stats.getMessId(), stats.getMonth(), stats.getYear())
+            .printedAs(messName, messCode, periodStart, periodEnd)
+            .hostelCount(stats.getHostelCount())
+            .registeredStudents(stats.getTotalStudents())
+            .totalStudents(stats.getActiveStudents())
+            .operatingDays(billDays)
+            .totalStudentDays(studentDays)
+            .totalAbsentDays(stats.getTotalAbsentDays())
+            .totalMessDays(messDays)
+            .perDayRate(rate)
+            .subtotal(subtotal)
+            .gstPercent(gst)
+            .gstAmount(gstAmount)
+            .fineAmount(fine)
+            .totalAmount(subtotal.add(gstAmount).add(fine))
+            .build();
+    }
+
+    /**
+     * Bill an open month with the operating days, rates and fine recorded for it
+     */
+    public static Bill calculate(MessStats stats, String messName, String messCode,
+                                 LocalDate periodStart, LocalDate periodEnd) {
+        return calculate(stats, messName, messCode, periodStart, periodEnd, stats.getOperatingDays(),
+                         stats.getPerDayRate(), stats.getGstPercent(), stats.getFineAmount());
+    }
+
+    /**
+     * Total a range bill; its month lines are already rounded to paise.
+     * The rate and GST % are null when they differ between months.
+     */
+    public static Bill calculate(RangeBillingEngine.RangeBill range, String messName, String messCode) {
+        BigDecimal rate = null;
+        BigDecimal gst = null;
+        if (!range.lines.isEmpty()) {
+            rate = range.lines.get(0).perDayRate;
+            gst = range.lines.get(0).gstPercent;
+        }
+        for (RangeBillingEngine.MonthLine line : range.lines) {
+            if (rate != null && line.perDayRate.compareTo(rate) != 0) rate = null;
+            if (gst != null && line.gstPercent.compareTo(gst) != 0) gst = null;
+        }
+
+        return Bill.builder(range.messId, range.start.getMonthValue(), range.start.getYear())
+            .printedAs(messName, messCode, range.start, range.end)
+            .totalStudents(range.getActiveStudents())
+            .operatingDays(range.billedDays)
+            .totalStudentDays(range.studentDays)
+            .totalAbsentDays(range.absentDays)
+            .totalMessDays(range.messDays)
+            .perDayRate(rate)
+            .subtotal(range.subtotal)
+            .gstPercent(gst)
+            .gstAmount(range.gstAmount)
+            .fineAmount(range.fineAmount)
+            .totalAmount(range.total)
+            .build();
+    }
+
+    /**
+     * The same figures printed under another name, code and period, e.g. a
+     * ledger bill shown with the hostel's code and the configured dates
+     */
+    public static Bill relabel(Bill bill, String messName, String messCode,
+                               LocalDate periodStart, LocalDate periodEnd) {
+        return bill.toBuilder()
+            .printedAs(messName, messCode, periodStart, periodEnd)
+            .build();
+    }
+
+    // ===== MONEY =====
+
+    static BigDecimal money(double amount) {
+        return money(BigDecimal.valueOf(amount));
+    }
+
+    static BigDecimal money(BigDecimal amount) {
+        return amount.setScale(MONEY_SCALE, RoundingMode.HALF_UP);
+    }
+
+    static BigDecimal subtotal(int messDays, BigDecimal perDayRate) {
+        return money(perDayRate.multiply(BigDecimal.valueOf(messDays)));
+    }
+
+    static BigDecimal gstOn(BigDecimal subtotal, BigDecimal gstPercent) {
+        return money(subtotal.multiply(gstPercent).divide(HUNDRED));
+    }
+}
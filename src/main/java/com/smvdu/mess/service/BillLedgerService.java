@@ -0,0 +1,232 @@
+package com.smvdu.mess.service;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.models.Bill;
+
+/**
+ * Ledger of finalized mess bills in the bills table.
+ *
+ * Finalizing a month snapshots its figures into one row per mess and month.
+ * From then on the month is read back from that row instead of being
+ * recomputed from attendance, so later student changes cannot move it.
+ */
+public class BillLedgerService {
+
+    private static final String SELECT_BILL = """
+        SELECT b.*, m.name AS mess_name, m.code AS mess_code
+        FROM bills b
+        LEFT JOIN messes m ON m.id = b.mess_id
+    """;
+
+    private static final String FIND_SQL = SELECT_BILL +
+        "WHERE b.mess_id = ? AND b.year = ? AND b.month = ?";
+
+    private static final String FIND_MONTH_SQL = SELECT_BILL +
+        "WHERE b.year = ? AND b.month = ? AND b.mess_id IS NOT NULL";
+
+    // History pages, newest month first; the "after" variants continue from a bill id
+    private static final String ORDER_PAGE = " ORDER BY b.year DESC, b.month DESC, b.mess_id DESC LIMIT ?";
+    private static final String AFTER_BILL =
+        " AND (b.year, b.month, b.mess_id) < (SELECT year, month, mess_id FROM bills WHERE id = ?)";
+
+    private static final String PAGE_ALL_SQL = SELECT_BILL +
+        "WHERE b.mess_id IS NOT NULL" + ORDER_PAGE;
+    private static final String PAGE_ALL_AFTER_SQL = SELECT_BILL +
+        "WHERE b.mess_id IS NOT NULL" + AFTER_BILL + ORDER_PAGE;
+    private static final String PAGE_MESS_SQL = SELECT_BILL +
+        "WHERE b.mess_id = ?" + ORDER_PAGE;
+    private static final String PAGE_MESS_AFTER_SQL = SELECT_BILL +
+        "WHERE b.mess_id = ?" + AFTER_BILL + ORDER_PAGE;
+
+    // hostel_id is a NOT NULL leftover from per-hostel bills. A mess bill fills it
+    // with the mess's lowest hostel id; nothing reads it back, mess_id is the key.
+    private static final String INSERT_SQL = """
+        INSERT INTO bills (
+            mess_id, hostel_id, month, year,
+            hostel_count, registered_students, total_students,
+            operating_days, total_student_days, total_absent_days, total_mess_days,
+            per_day_rate, subtotal, gst_percent, gst_amount,
+            fine_amount, total_amount, generated_by
+        ) VALUES (?, (SELECT MIN(id) FROM hostels WHERE mess_id = ?), ?, ?,
+                  ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    /**
+     * Snapshot a bill worked out by {@link BillCalculationService} into the
+     * ledger exactly as it was shown, printed and exported.
+     *
+     * @throws IllegalStateException if the month is already finalized or the
+     *         bill does not cover a single month of a mess with hostels
+     */
+    public static Bill finalizeBill(Bill bill, int generatedBy) throws SQLException {
+        int messId = bill.getMessId();
+        int month = bill.getMonth();
+        int year = bill.getYear();
+        if (bill.getHostelCount() == 0) {
+            throw new IllegalStateException("No hostels found for this mess");
+        }
+        if (bill.getPerDayRate() == null || bill.getGstPercent() == null
+                || !YearMonth.from(bill.getPeriodStart()).equals(YearMonth.from(bill.getPeriodEnd()))) {
+            throw new IllegalStateException("Only a single month can be finalized");
+        }
+
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            // Holding the writer keeps the check and the insert consistent
+            if (getFinalized(messId, month, year) != null) {
+                throw new IllegalStateException("The bill for " + month + "/" + year + " is already finalized");
+            }
+
+            PreparedStatement ps = conn.prepare(INSERT_SQL);
+            ps.setInt(1, messId);
+            ps.setInt(2, messId);
+            ps.setInt(3, month);
+            ps.setInt(4, year);
+            ps.setInt(5, bill.getHostelCount());
+            ps.setInt(6, bill.getRegisteredStudents());
+            ps.setInt(7, bill.getTotalStudents());
+            ps.setInt(8, bill.getOperatingDays());
+            ps.setInt(9, bill.getTotalStudentDays());
+            ps.setInt(10, bill.getTotalAbsentDays());
+            ps.setInt(11, bill.getTotalMessDays());
+            ps.setDouble(12, bill.getPerDayRate().doubleValue());
+            ps.setDouble(13, bill.getSubtotal().doubleValue());
+            ps.setDouble(14, bill.getGstPercent().doubleValue());
+            ps.setDouble(15, bill.getGstAmount().doubleValue());
+            ps.setDouble(16, bill.getFineAmount().doubleValue());
+            ps.setDouble(17, bill.getTotalAmount().doubleValue());
+            if (generatedBy > 0) {
+                ps.setInt(18, generatedBy);
+            } else {
+                ps.setNull(18, Types.INTEGER);
+            }
+            ps.executeUpdate();
+        }
+
+        MessStatsCache.invalidate(messId, month, year);
+        return getFinalized(messId, month, year);
+    }
+
+    /**
+     * The finalized bill of a mess and month, or null while the month is open
+     */
+    public static Bill getFinalized(int messId, int month, int year) throws SQLException {
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(FIND_SQL);
+            ps.setInt(1, messId);
+            ps.setInt(2, year);
+            ps.setInt(3, month);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? readBill(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Finalized bills of every mess for one month, keyed by mess id
+     */
+    public static Map<Integer, Bill> getFinalizedForMonth(int month, int year) throws SQLException {
+        Map<Integer, Bill> bills = new HashMap<>();
+
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(FIND_MONTH_SQL);
+            ps.setInt(1, year);
+            ps.setInt(2, month);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Bill bill = readBill(rs);
+                    bills.put(bill.getMessId(), bill);
+                }
+            }
+        }
+        return bills;
+    }
+
+    /**
+     * One page of finalized bills, newest month first.
+     *
+     * @param messId     a mess, or 0 for every mess
+     * @param afterBillId id of the last bill of the previous page ("" for the first page)
+     */
+    public static List<Bill> listBills(int messId, String afterBillId, int limit) throws SQLException {
+        boolean firstPage = afterBillId == null || afterBillId.isEmpty();
+        String sql = messId > 0
+            ? (firstPage ? PAGE_MESS_SQL : PAGE_MESS_AFTER_SQL)
+            : (firstPage ? PAGE_ALL_SQL : PAGE_ALL_AFTER_SQL);
+
+        List<Bill> bills = new ArrayList<>();
+
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(sql);
+            int i = 1;
+            if (messId > 0) ps.setInt(i++, messId);
+            if (!firstPage) ps.setInt(i++, Integer.parseInt(afterBillId));
+            ps.setInt(i, limit > 0 ? limit : -1); // SQLite treats a negative LIMIT as no limit
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    bills.add(readBill(rs));
+                }
+            }
+        }
+        return bills;
+    }
+
+    /**
+     * The stats screens show for a finalized month, rebuilt from the ledger row
+     */
+    public static MessStats toStats(Bill bill) {
+        return new MessStats(
+            bill.getMessId(),
+            bill.getMonth(),
+            bill.getYear(),
+            bill.getHostelCount(),
+            bill.getOperatingDays(),
+            bill.getRegisteredStudents(),
+            bill.getTotalStudents(),
+            bill.getTotalAbsentDays(),
+            bill.getPerDayRate().doubleValue(),
+            bill.getGstPercent().doubleValue(),
+            bill.getFineAmount().doubleValue()
+        );
+    }
+
+    private static Bill readBill(ResultSet rs) throws SQLException {
+        String generatedAt = rs.getString("generated_at");
+        YearMonth period = YearMonth.of(rs.getInt("year"), rs.getInt("month"));
+
+        return Bill.builder(rs.getInt("mess_id"), period.getMonthValue(), period.getYear())
+            .id(rs.getInt("id"))
+            .printedAs(rs.getString("mess_name"), rs.getString("mess_code"), period.atDay(1), period.atEndOfMonth())
+            .hostelCount(rs.getInt("hostel_count"))
+            .registeredStudents(rs.getInt("registered_students"))
+            .totalStudents(rs.getInt("total_students"))
+            .operatingDays(rs.getInt("operating_days"))
+            .totalStudentDays(rs.getInt("total_student_days"))
+            .totalAbsentDays(rs.getInt("total_absent_days"))
+            .totalMessDays(rs.getInt("total_mess_days"))
+            .perDayRate(BigDecimal.valueOf(rs.getDouble("per_day_rate")))
+            .subtotal(BillCalculationService.money(rs.getDouble("subtotal")))
+            .gstPercent(BigDecimal.valueOf(rs.getDouble("gst_percent")))
+            .gstAmount(BillCalculationService.money(rs.getDouble("gst_amount")))
+            .fineAmount(BillCalculationService.money(rs.getDouble("fine_amount")))
+            .totalAmount(BillCalculationService.money(rs.getDouble("total_amount")))
+            // CURRENT_TIMESTAMP is stored as "yyyy-MM-dd HH:mm:ss"
+            .generatedAt(generatedAt == null ? null : LocalDateTime.parse(generatedAt.replace(' ', 'T')))
+            .build();
+    }
+}
@@ -0,0 +1,213 @@
+package com.smvdu.mess.service;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.utils.PdfMerger;
+import com.smvdu.mess.models.Bill;
+import com.smvdu.mess.service.MessAggregateQuery.MessSummary;
+import com.smvdu.mess.utils.BillPDFGenerator;
+import com.smvdu.mess.utils.MessUtils;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+/**
+ * Writes the bill PDF of every mess for one month into a single folder.
+ *
+ * All figures come from one {@link MessStatsService#getAllStats} call,
+ * worked out by {@link BillCalculationService} (finalized bills straight
+ * from the ledger); the PDFs are then written
+ * concurrently on a small pool, and can be merged into one combined file
+ * in mess-name order. Each file's timing is reported to the log.
+ */
+public class BulkBillExport extends Task<BulkBillExport.Result> {
+
+    private static final int MAX_WORKERS = 4;
+
+    public static class Result {
+        public final List<File> files;
+        public final int failed;
+        public final File combined; // null if not merged
+        public final long elapsedMillis;
+
+        public Result(List<File> files, int failed, File combined, long elapsedMillis) {
+            this.files = Collections.unmodifiableList(files);
+            this.failed = failed;
+            this.combined = combined;
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+
+    // One written (or failed) mess bill
+    private static class Written {
+        final int index;
+        final String messName;
+        final File file;
+        final long millis;
+
+        Written(int index, String messName, File file, long millis) {
+            this.index = index;
+            this.messName = messName;
+            this.file = file;
+            this.millis = millis;
+        }
+    }
+
+    private final int month;
+    private final int year;
+    private final File outputDir;
+    private final boolean merge;
+    private final String preparedBy;
+    private final Consumer<String> uiLog;
+
+    /**
+     * @param uiLog receives log lines on the FX thread
+     */
+    public BulkBillExport(int month, int year, File outputDir, boolean merge,
+                          String preparedBy, Consumer<String> uiLog) {
+        this.month = month;
+        this.year = year;
+        this.outputDir = outputDir;
+        this.merge = merge;
+        this.preparedBy = preparedBy;
+        this.uiLog = uiLog;
+    }
+
+    @Override
+    protected Result call() throws Exception {
+        long started = System.nanoTime();
+        String monthName = Month.of(month).getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+
+        List<MessSummary> messes = new ArrayList<>();
+        for (MessSummary mess : MessStatsService.getAllStats(month, year)) {
+            if (mess.stats.getHostelCount() > 0) messes.add(mess);
+        }
+        if (messes.isEmpty()) {
+            log("No messes with hostels to export.");
+            return new Result(List.of(), 0, null, elapsedMillis(started));
+        }
+
+        Map<Integer, Bill> finalized = BillLedgerService.getFinalizedForMonth(month, year);
+
+        log("Exporting " + messes.size() + " bills for " + monthName + " " + year + "...");
+        updateProgress(0, messes.size());
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(messes.size(), MAX_WORKERS), r -> {
+            Thread t = new Thread(r, "bill-export-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        File[] files = new File[messes.size()];
+        int failed = 0;
+
+        try {
+            CompletionService<Written> completion = new ExecutorCompletionService<>(pool);
+            for (int i = 0; i < messes.size(); i++) {
+                int index = i;
+                MessSummary mess = messes.get(i);
+                completion.submit(() -> writeBill(index, mess, finalized.get(mess.messId), monthName));
+            }
+
+            for (int done = 1; done <= messes.size(); done++) {
+                Future<Written> future = completion.take(); // Interrupted by cancel()
+                try {
+                    Written written = future.get();
+                    files[written.index] = written.file;
+                    log(String.format("✓ %s → %s (%d ms)", written.messName, written.file.getName(), written.millis));
+                } catch (ExecutionException e) {
+                    failed++;
+                    e.getCause().printStackTrace();
+                    log("✗ " + e.getCause().getMessage());
+                }
+                updateProgress(done, messes.size());
+            }
+        } catch (InterruptedException e) {
+            log("Export cancelled.");
+            throw e;
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<File> written = new ArrayList<>();
+        for (File file : files) {
+            if (file != null) written.add(file);
+        }
+
+        File combined = null;
+        if (merge && !written.isEmpty()) {
+            long mergeStarted = System.nanoTime();
+            combined = new File(outputDir, "All_Mess_Bills_" + monthName + "_" + year + ".pdf");
+            mergeInto(combined, written);
+            log(String.format("✓ Combined → %s (%d ms)", combined.getName(), elapsedMillis(mergeStarted)));
+        }
+
+        Result result = new Result(written, failed, combined, elapsedMillis(started));
+        log(String.format("Done: %d written, %d failed in %d ms", written.size(), failed, result.elapsedMillis));
+        return result;
+    }
+
+    // Runs on a pool thread
+    private Written writeBill(int index, MessSummary mess, Bill ledgerBill, String monthName) throws Exception {
+        long started = System.nanoTime();
+
+        // The period the caretaker configured, or the whole month
+        MessUtils.BillConfig config = MessUtils.getBillConfig(mess.messId, month, year);
+        LocalDate start = config != null ? config.startDate : LocalDate.of(year, month, 1);
+        LocalDate end = config != null ? config.endDate : start.withDayOfMonth(start.lengthOfMonth());
+
+        File file = new File(outputDir,
+            "Bill_" + mess.name.replace(" ", "_") + "_" + monthName + "_" + year + ".pdf");
+
+        Bill bill = ledgerBill != null
+            ? BillCalculationService.relabel(ledgerBill, mess.name, mess.code, start, end)
+            : BillCalculationService.calculate(mess.stats, mess.name, mess.code, start, end);
+
+        try {
+            BillPDFGenerator.generateBillPDF(file.getAbsolutePath(), bill, preparedBy);
+        } catch (Exception e) {
+            throw new Exception(mess.name + ": " + e.getMessage(), e);
+        }
+
+        return new Written(index, mess.name, file, elapsedMillis(started));
+    }
+
+    private static void mergeInto(File target, List<File> parts) throws Exception {
+        try (PdfDocument merged = new PdfDocument(new PdfWriter(target))) {
+            PdfMerger merger = new PdfMerger(merged);
+            for (File part : parts) {
+                try (PdfDocument source = new PdfDocument(new PdfReader(part))) {
+                    merger.merge(source, 1, source.getNumberOfPages());
+                }
+            }
+        }
+    }
+
+    private void log(String message) {
+        Platform.runLater(() -> uiLog.accept(message));
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,158 @@
+package com.smvdu.mess.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+
+/**
+ * Loads every number a mess screen needs (operating days, student counts,
+ * absent days, rates and fine) in a single query, instead of one MessUtils
+ * call per metric. Student figures are read from mess_month_rollup, so the
+ * cost does not grow with the number of students.
+ */
+public class MessAggregateQuery {
+
+    private static final double DEFAULT_PER_DAY_RATE = 120.0;
+    private static final double DEFAULT_GST_PERCENT = 5.0;
+
+    // Student counts come from the mess's own rollup row (month 0), absent days
+    // from the month's row; both are kept current by triggers (schema v4)
+    static final String MESS_STATS_SQL = """
+        WITH p (mess_id, month, year) AS (SELECT ?, ?, ?)
+        SELECT
+            (SELECT COUNT(*) FROM hostels h WHERE h.mess_id = p.mess_id) AS hostel_count,
+            COALESCE(a.total_students, 0) AS total_students,
+            COALESCE(a.active_students, 0) AS active_students,
+            COALESCE(r.absent_days_sum, 0) AS absent_days,
+            (SELECT operating_days FROM mess_operation_days o
+              WHERE o.mess_id = p.mess_id AND o.month = p.month AND o.year = p.year) AS operating_days,
+            (SELECT fine_amount FROM bill_configurations b
+              WHERE b.mess_id = p.mess_id AND b.month = p.month AND b.year = p.year) AS fine_amount,
+            (SELECT CAST(value AS REAL) FROM settings WHERE key = 'per_day_rate') AS per_day_rate,
+            (SELECT CAST(value AS REAL) FROM settings WHERE key = 'gst_percent') AS gst_percent
+        FROM p
+        LEFT JOIN mess_month_rollup a ON a.mess_id = p.mess_id AND a.year = 0 AND a.month = 0
+        LEFT JOIN mess_month_rollup r ON r.mess_id = p.mess_id AND r.year = p.year AND r.month = p.month
+    """;
+
+    static final String ALL_MESS_STATS_SQL = """
+        WITH p (month, year) AS (SELECT ?, ?)
+        SELECT
+            m.id AS mess_id,
+            m.name AS mess_name,
+            m.code AS mess_code,
+            (SELECT COUNT(*) FROM hostels h WHERE h.mess_id = m.id) AS hostel_count,
+            COALESCE(a.total_students, 0) AS total_students,
+            COALESCE(a.active_students, 0) AS active_students,
+            COALESCE(r.absent_days_sum, 0) AS absent_days,
+            o.operating_days AS operating_days,
+            b.fine_amount AS fine_amount,
+            (SELECT CAST(value AS REAL) FROM settings WHERE key = 'per_day_rate') AS per_day_rate,
+            (SELECT CAST(value AS REAL) FROM settings WHERE key = 'gst_percent') AS gst_percent
+        FROM p
+        CROSS JOIN messes m
+        LEFT JOIN mess_month_rollup a ON a.mess_id = m.id AND a.year = 0 AND a.month = 0
+        LEFT JOIN mess_month_rollup r ON r.mess_id = m.id AND r.year = p.year AND r.month = p.month
+        LEFT JOIN mess_operation_days o ON o.mess_id = m.id
+            AND o.month = p.month AND o.year = p.year
+        LEFT JOIN bill_configurations b ON b.mess_id = m.id
+            AND b.month = p.month AND b.year = p.year
+        ORDER BY m.name
+    """;
+
+    /**
+     * A mess row from {@link #loadAllMessStats(int, int)}
+     */
+    public static class MessSummary {
+        public final int messId;
+        public final String name;
+        public final String code;
+        public final MessStats stats;
+
+        public MessSummary(int messId, String name, String code, MessStats stats) {
+            this.messId = messId;
+            this.name = name;
+            this.code = code;
+            this.stats = stats;
+        }
+    }
+
+    /**
+     * Load statistics for one mess and month in a single round trip
+     */
+    public static MessStats load(int messId, int month, int year) throws SQLException {
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(MESS_STATS_SQL);
+            ps.setInt(1, messId);
+            ps.setInt(2, month);
+            ps.setInt(3, year);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next(); // Driven by the single parameter row, so always one row
+                return fromRow(rs, messId, month, year);
+            }
+        }
+    }
+
+    /**
+     * Load statistics for every mess in one query, ordered by mess name.
+     * Messes with no hostels are included with a hostel count of 0.
+     */
+    public static List<MessSummary> loadAllMessStats(int month, int year) throws SQLException {
+        List<MessSummary> result = new ArrayList<>();
+
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(ALL_MESS_STATS_SQL);
+            ps.setInt(1, month);
+            ps.setInt(2, year);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int messId = rs.getInt("mess_id");
+                    result.add(new MessSummary(
+                            messId,
+                            rs.getString("mess_name"),
+                            rs.getString("mess_code"),
+                            fromRow(rs, messId, month, year)
+                    ));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static MessStats fromRow(ResultSet rs, int messId, int month, int year) throws SQLException {
+        // Falls back to calendar month length if operating days were never set
+        int operatingDays = rs.getInt("operating_days");
+        if (rs.wasNull()) {
+            operatingDays = LocalDate.of(year, month, 1).lengthOfMonth();
+        }
+
+        double perDayRate = rs.getDouble("per_day_rate");
+        if (rs.wasNull()) perDayRate = DEFAULT_PER_DAY_RATE;
+
+        double gstPercent = rs.getDouble("gst_percent");
+        if (rs.wasNull()) gstPercent = DEFAULT_GST_PERCENT;
+
+        return new MessStats(
+                messId,
+                month,
+                year,
+                rs.getInt("hostel_count"),
+                operatingDays,
+                rs.getInt("total_students"),
+                rs.getInt("active_students"),
+                rs.getInt("absent_days"),
+                perDayRate,
+                gstPercent,
+                rs.getDouble("fine_amount") // NULL reads as 0
+        );
+    }
+}
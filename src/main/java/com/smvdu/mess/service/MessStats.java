@@ -2,30 +2,80 @@ package com.smvdu.mess.service;
 
 public class MessStats {
 
+    private final int messId;
+    private final int month;
+    private final int year;
+    private final int hostelCount;
     private final int operatingDays;
+    private final int totalStudents;
     private final int activeStudents;
     private final int totalAbsentDays;
+    private final double perDayRate;
+    private final double gstPercent;
+    private final double fineAmount;
+
+    // Derived
     private final int netMessDays;
+    private final double subtotal;
+    private final double gstAmount;
     private final double estimatedBill;
 
     public MessStats(
+            int messId,
+            int month,
+            int year,
+            int hostelCount,
             int operatingDays,
+            int totalStudents,
             int activeStudents,
             int totalAbsentDays,
-            int netMessDays,
-            double estimatedBill
+            double perDayRate,
+            double gstPercent,
+            double fineAmount
     ) {
+        this.messId = messId;
+        this.month = month;
+        this.year = year;
+        this.hostelCount = hostelCount;
         this.operatingDays = operatingDays;
+        this.totalStudents = totalStudents;
         this.activeStudents = activeStudents;
         this.totalAbsentDays = totalAbsentDays;
-        this.netMessDays = netMessDays;
-        this.estimatedBill = estimatedBill;
+        this.perDayRate = perDayRate;
+        this.gstPercent = gstPercent;
+        this.fineAmount = fineAmount;
+
+        // Same formula the dashboards and bill screen have always used
+        this.netMessDays = Math.max(0, activeStudents * operatingDays - totalAbsentDays);
+        this.subtotal = netMessDays * perDayRate;
+        this.gstAmount = subtotal * (gstPercent / 100);
+        this.estimatedBill = subtotal + gstAmount + fineAmount;
+    }
+
+    public int getMessId() {
+        return messId;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getHostelCount() {
+        return hostelCount;
     }
 
     public int getOperatingDays() {
         return operatingDays;
     }
 
+    public int getTotalStudents() {
+        return totalStudents;
+    }
+
     public int getActiveStudents() {
         return activeStudents;
     }
@@ -34,10 +84,30 @@ public class MessStats {
         return totalAbsentDays;
     }
 
+    public double getPerDayRate() {
+        return perDayRate;
+    }
+
+    public double getGstPercent() {
+        return gstPercent;
+    }
+
+    public double getFineAmount() {
+        return fineAmount;
+    }
+
     public int getNetMessDays() {
         return netMessDays;
     }
 
+    public double getSubtotal() {
+        return subtotal;
+    }
+
+    public double getGstAmount() {
+        return gstAmount;
+    }
+
     public double getEstimatedBill() {
         return estimatedBill;
     }
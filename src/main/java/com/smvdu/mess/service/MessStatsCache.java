@@ -1,29 +1,148 @@
 package com.smvdu.mess.service;
 
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Thread-safe LRU cache of {@link MessStats}, keyed by mess/month/year packed
+ * into a long. Entries expire after a TTL, and every write path that changes
+ * a bill input (attendance, settings, operating days, bill config) must call
+ * one of the invalidate methods.
+ */
 public class MessStatsCache {
 
-    private static final Map<String, MessStats> CACHE = new HashMap<>();
+    private static final int MAX_ENTRIES = 256;
+    private static final long TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
 
-    private static String key(int messId, int month, int year) {
-        return messId + "-" + month + "-" + year;
+    private static final class Entry {
+        final MessStats stats;
+        final long loadedAt;
+
+        Entry(MessStats stats, long loadedAt) {
+            this.stats = stats;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    // Access-ordered, so the eldest entry is the least recently used one
+    private static final LinkedHashMap<Long, Entry> CACHE =
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                    if (size() > MAX_ENTRIES) {
+                        EVICTIONS.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
+
+    // Bumped on every invalidation so loads that started before a write
+    // cannot put their stale result back
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private static long key(int messId, int month, int year) {
+        return ((long) messId << 32) | ((long) year << 4) | month;
+    }
+
+    private static int messIdOf(long key) {
+        return (int) (key >>> 32);
     }
 
     public static MessStats get(int messId, int month, int year) {
-        return CACHE.get(key(messId, month, year));
+        synchronized (CACHE) {
+            long k = key(messId, month, year);
+            Entry entry = CACHE.get(k);
+
+            if (entry != null && System.nanoTime() - entry.loadedAt > TTL_NANOS) {
+                CACHE.remove(k);
+                EVICTIONS.increment();
+                entry = null;
+            }
+
+            if (entry == null) {
+                MISSES.increment();
+                return null;
+            }
+            HITS.increment();
+            return entry.stats;
+        }
+    }
+
+    /**
+     * Current generation; pass it back to {@link #put} after loading
+     */
+    public static long generation() {
+        return GENERATION.get();
     }
 
-    public static void put(int messId, int month, int year, MessStats stats) {
-        CACHE.put(key(messId, month, year), stats);
+    /**
+     * Store stats loaded when the cache was at the given generation.
+     * Dropped silently if anything was invalidated in the meantime.
+     */
+    public static void put(int messId, int month, int year, MessStats stats, long loadedAtGeneration) {
+        synchronized (CACHE) {
+            if (GENERATION.get() != loadedAtGeneration) {
+                return;
+            }
+            CACHE.put(key(messId, month, year), new Entry(stats, System.nanoTime()));
+        }
     }
 
     public static void invalidate(int messId, int month, int year) {
-        CACHE.remove(key(messId, month, year));
+        synchronized (CACHE) {
+            GENERATION.incrementAndGet();
+            CACHE.remove(key(messId, month, year));
+        }
+    }
+
+    /**
+     * Drop every month of one mess (e.g. after its student list changed)
+     */
+    public static void invalidateMess(int messId) {
+        synchronized (CACHE) {
+            GENERATION.incrementAndGet();
+            Iterator<Long> it = CACHE.keySet().iterator();
+            while (it.hasNext()) {
+                if (messIdOf(it.next()) == messId) {
+                    it.remove();
+                }
+            }
+        }
     }
 
     public static void clearAll() {
-        CACHE.clear();
+        synchronized (CACHE) {
+            GENERATION.incrementAndGet();
+            CACHE.clear();
+        }
+    }
+
+    // ===== COUNTERS =====
+
+    public static long getHitCount() {
+        return HITS.sum();
+    }
+
+    public static long getMissCount() {
+        return MISSES.sum();
+    }
+
+    public static long getEvictionCount() {
+        return EVICTIONS.sum();
+    }
+
+    public static int size() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
     }
 }
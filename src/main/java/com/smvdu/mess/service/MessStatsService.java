@@ -1,15 +1,20 @@
 package com.smvdu.mess.service;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.time.LocalDate;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
 
-import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.models.Bill;
+import com.smvdu.mess.service.MessAggregateQuery.MessSummary;
 
 public class MessStatsService {
 
-    public static MessStats getStats(int messId, int month, int year) {
+    public static MessStats getStats(int messId, int month, int year) throws SQLException {
+
+        // 0️⃣ Queued attendance edits for this month must be counted; only then take the writer
+        if (AttendanceWriteQueue.hasPending(messId, month, year)) {
+            AttendanceWriteQueue.flushNow();
+        }
 
         // 1️⃣ Check cache first
         MessStats cached = MessStatsCache.get(messId, month, year);
@@ -17,86 +22,46 @@ public class MessStatsService {
             return cached;
         }
 
-        // 2️⃣ Not cached → calculate
-        MessStats calculated = calculate(messId, month, year);
+        // 2️⃣ Finalized month → read the ledger row, open month → one aggregate query
+        long generation = MessStatsCache.generation();
+        Bill finalized = BillLedgerService.getFinalized(messId, month, year);
+        MessStats calculated = finalized != null
+                ? BillLedgerService.toStats(finalized)
+                : MessAggregateQuery.load(messId, month, year);
 
-        // 3️⃣ Store in cache
-        MessStatsCache.put(messId, month, year, calculated);
+        // 3️⃣ Store in cache (skipped if a write invalidated it meanwhile)
+        MessStatsCache.put(messId, month, year, calculated, generation);
 
         return calculated;
     }
 
-    private static MessStats calculate(int messId, int month, int year) {
-
-        int operatingDays = LocalDate.of(year, month, 1).lengthOfMonth();
-        int activeStudents = 0;
-        int totalAbsentDays = 0;
-        double perDayRate = 120;
-        double gstPercent = 5;
-
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-
-            // Operating days (if overridden)
-            PreparedStatement ps = conn.prepareStatement(
-                    "SELECT operating_days FROM mess_operation_days WHERE mess_id=? AND month=? AND year=?"
-            );
-            ps.setInt(1, messId);
-            ps.setInt(2, month);
-            ps.setInt(3, year);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) operatingDays = rs.getInt(1);
-
-            // Active students
-            ps = conn.prepareStatement(
-                    "SELECT COUNT(*) FROM students WHERE hostel_id IN " +
-                            "(SELECT id FROM hostels WHERE mess_id=?) AND is_active=1"
-            );
-            ps.setInt(1, messId);
-            rs = ps.executeQuery();
-            if (rs.next()) activeStudents = rs.getInt(1);
-
-            // Absent days
-            ps = conn.prepareStatement(
-                    "SELECT COALESCE(SUM(absent_days),0) FROM student_attendance " +
-                            "WHERE student_id IN " +
-                            "(SELECT id FROM students WHERE hostel_id IN " +
-                            "(SELECT id FROM hostels WHERE mess_id=?)) " +
-                            "AND month=? AND year=?"
-            );
-            ps.setInt(1, messId);
-            ps.setInt(2, month);
-            ps.setInt(3, year);
-            rs = ps.executeQuery();
-            if (rs.next()) totalAbsentDays = rs.getInt(1);
+    /**
+     * Stats for every mess in one query; also warms the cache for each mess
+     */
+    public static List<MessSummary> getAllStats(int month, int year) throws SQLException {
+        if (AttendanceWriteQueue.hasPending(month, year)) {
+            AttendanceWriteQueue.flushNow();
+        }
 
-            // Rates
-            rs = conn.createStatement().executeQuery(
-                    "SELECT key,value FROM settings WHERE key IN ('per_day_rate','gst_percent')"
-            );
-            while (rs.next()) {
-                if (rs.getString("key").equals("per_day_rate"))
-                    perDayRate = Double.parseDouble(rs.getString("value"));
-                if (rs.getString("key").equals("gst_percent"))
-                    gstPercent = Double.parseDouble(rs.getString("value"));
+        long generation = MessStatsCache.generation();
+        List<MessSummary> messes = MessAggregateQuery.loadAllMessStats(month, year);
+
+        // Messes whose month is finalized show the ledger figures instead
+        Map<Integer, Bill> finalized = BillLedgerService.getFinalizedForMonth(month, year);
+        if (!finalized.isEmpty()) {
+            for (int i = 0; i < messes.size(); i++) {
+                MessSummary mess = messes.get(i);
+                Bill bill = finalized.get(mess.messId);
+                if (bill != null) {
+                    messes.set(i, new MessSummary(mess.messId, mess.name, mess.code,
+                                                  BillLedgerService.toStats(bill)));
+                }
             }
-
-        } catch (Exception e) {
-            e.printStackTrace();
         }
 
-        int totalPossibleDays = operatingDays * activeStudents;
-        int netMessDays = Math.max(0, totalPossibleDays - totalAbsentDays);
-        double subtotal = netMessDays * perDayRate;
-        double gst = subtotal * (gstPercent / 100);
-        double total = subtotal + gst;
-
-        return new MessStats(
-                operatingDays,
-                activeStudents,
-                totalAbsentDays,
-                netMessDays,
-                total
-        );
+        for (MessSummary mess : messes) {
+            MessStatsCache.put(mess.messId, month, year, mess.stats, generation);
+        }
+        return messes;
     }
 }
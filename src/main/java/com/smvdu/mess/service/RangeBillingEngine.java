@@ -0,0 +1,270 @@
+package com.smvdu.mess.service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+
+/**
+ * Bills a mess for any date range, e.g. a semester or a year.
+ *
+ * The range is split into calendar months and every month's operating days,
+ * attendance, fine and ledger row are fetched in one query over a generated
+ * list of months. Each month becomes a line; the bill totals the lines.
+ *
+ * Open months are billed at the rate and GST the caretaker entered, like a
+ * single-month bill, and with each month's own saved fine. A finalized
+ * month that the range covers completely is taken from the ledger as is.
+ * For a month the range only partly covers, everything monthly is
+ * pro-rated by the share of the calendar month covered: the billed days
+ * are that share of the month's operating days (rounded), the fine is that
+ * share of the month's fine, and the absent days are scaled to the billed
+ * days, since attendance is recorded per month.
+ */
+public class RangeBillingEngine {
+
+    private static final String RANGE_SQL = """
+        WITH RECURSIVE
+            p (mess_id) AS (SELECT ?),
+            months (n, month, year) AS (
+                SELECT 0, ?, ?
+                UNION ALL
+                SELECT n + 1,
+                       CASE WHEN month = 12 THEN 1 ELSE month + 1 END,
+                       CASE WHEN month = 12 THEN year + 1 ELSE year END
+                FROM months WHERE n + 1 < ?
+            )
+        SELECT
+            mo.month, mo.year,
+            COALESCE(a.active_students, 0) AS active_students,
+            COALESCE(r.absent_days_sum, 0) AS absent_days,
+            o.operating_days,
+            COALESCE(c.fine_amount, 0) AS fine_amount,
+            b.id AS bill_id,
+            b.total_students AS bill_students,
+            b.operating_days AS bill_days,
+            b.total_absent_days AS bill_absent_days,
+            b.total_mess_days AS bill_mess_days,
+            b.per_day_rate AS bill_rate,
+            b.subtotal AS bill_subtotal,
+            b.gst_percent AS bill_gst_percent,
+            b.gst_amount AS bill_gst_amount,
+            b.fine_amount AS bill_fine,
+            b.total_amount AS bill_total
+        FROM months mo
+        CROSS JOIN p
+        LEFT JOIN mess_month_rollup a ON a.mess_id = p.mess_id AND a.year = 0 AND a.month = 0
+        LEFT JOIN mess_month_rollup r ON r.mess_id = p.mess_id AND r.year = mo.year AND r.month = mo.month
+        LEFT JOIN mess_operation_days o ON o.mess_id = p.mess_id AND o.year = mo.year AND o.month = mo.month
+        LEFT JOIN bill_configurations c ON c.mess_id = p.mess_id AND c.year = mo.year AND c.month = mo.month
+        LEFT JOIN bills b ON b.mess_id = p.mess_id AND b.year = mo.year AND b.month = mo.month
+        ORDER BY mo.n
+    """;
+
+    /**
+     * One calendar month of a range bill
+     */
+    public static class MonthLine {
+        public final int month;
+        public final int year;
+        public final LocalDate from;
+        public final LocalDate to;
+        public final boolean finalized;
+        public final int billedDays;
+        public final int activeStudents;
+        public final int studentDays;
+        public final int absentDays;
+        public final int messDays;
+        public final BigDecimal perDayRate;
+        public final BigDecimal subtotal;
+        public final BigDecimal gstPercent;
+        public final BigDecimal gstAmount;
+        public final BigDecimal fineAmount;
+        public final BigDecimal total;
+
+        MonthLine(int month, int year, LocalDate from, LocalDate to, boolean finalized,
+                  int billedDays, int activeStudents, int absentDays, int messDays,
+                  BigDecimal perDayRate, BigDecimal subtotal, BigDecimal gstPercent, BigDecimal gstAmount,
+                  BigDecimal fineAmount, BigDecimal total) {
+            this.month = month;
+            this.year = year;
+            this.from = from;
+            this.to = to;
+            this.finalized = finalized;
+            this.billedDays = billedDays;
+            this.activeStudents = activeStudents;
+            this.studentDays = activeStudents * billedDays;
+            this.absentDays = absentDays;
+            this.messDays = messDays;
+            this.perDayRate = perDayRate;
+            this.subtotal = subtotal;
+            this.gstPercent = gstPercent;
+            this.gstAmount = gstAmount;
+            this.fineAmount = fineAmount;
+            this.total = total;
+        }
+    }
+
+    /**
+     * A bill for a date range: one line per month plus totals
+     */
+    public static class RangeBill {
+        public final int messId;
+        public final LocalDate start;
+        public final LocalDate end;
+        public final List<MonthLine> lines;
+
+        public final int billedDays;
+        public final int studentDays;
+        public final int absentDays;
+        public final int messDays;
+        public final BigDecimal subtotal;
+        public final BigDecimal gstAmount;
+        public final BigDecimal fineAmount;
+        public final BigDecimal total;
+
+        RangeBill(int messId, LocalDate start, LocalDate end, List<MonthLine> lines) {
+            this.messId = messId;
+            this.start = start;
+            this.end = end;
+            this.lines = Collections.unmodifiableList(lines);
+
+            int days = 0, studentDays = 0, absent = 0, messDays = 0;
+            BigDecimal subtotal = BigDecimal.ZERO.setScale(2), gst = subtotal, fine = subtotal, total = subtotal;
+            for (MonthLine line : lines) {
+                days += line.billedDays;
+                studentDays += line.studentDays;
+                absent += line.absentDays;
+                messDays += line.messDays;
+                subtotal = subtotal.add(line.subtotal);
+                gst = gst.add(line.gstAmount);
+                fine = fine.add(line.fineAmount);
+                total = total.add(line.total);
+            }
+            this.billedDays = days;
+            this.studentDays = studentDays;
+            this.absentDays = absent;
+            this.messDays = messDays;
+            this.subtotal = subtotal;
+            this.gstAmount = gst;
+            this.fineAmount = fine;
+            this.total = total;
+        }
+
+        /**
+         * Students on the latest month's line (the current count for open months)
+         */
+        public int getActiveStudents() {
+            return lines.isEmpty() ? 0 : lines.get(lines.size() - 1).activeStudents;
+        }
+    }
+
+    /**
+     * Bill a mess from start to end, both inclusive, with open months at the given rate and GST
+     */
+    public static RangeBill calculate(int messId, LocalDate start, LocalDate end,
+                                      double perDayRate, double gstPercent) throws SQLException {
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+
+        // Queued attendance edits must be counted
+        AttendanceWriteQueue.flushNow();
+
+        YearMonth first = YearMonth.from(start);
+        int monthCount = (int) ChronoUnit.MONTHS.between(first, YearMonth.from(end)) + 1;
+        List<MonthLine> lines = new ArrayList<>(monthCount);
+
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(RANGE_SQL);
+            ps.setInt(1, messId);
+            ps.setInt(2, first.getMonthValue());
+            ps.setInt(3, first.getYear());
+            ps.setInt(4, monthCount);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lines.add(readLine(rs, start, end, perDayRate, gstPercent));
+                }
+            }
+        }
+
+        return new RangeBill(messId, start, end, lines);
+    }
+
+    private static MonthLine readLine(ResultSet rs, LocalDate start, LocalDate end,
+                                      double perDayRate, double gstPercent) throws SQLException {
+        YearMonth ym = YearMonth.of(rs.getInt("year"), rs.getInt("month"));
+        LocalDate from = start.isAfter(ym.atDay(1)) ? start : ym.atDay(1);
+        LocalDate to = end.isBefore(ym.atEndOfMonth()) ? end : ym.atEndOfMonth();
+        boolean wholeMonth = from.getDayOfMonth() == 1 && to.equals(ym.atEndOfMonth());
+
+        rs.getInt("bill_id");
+        if (wholeMonth && !rs.wasNull()) {
+            // Finalized: exactly what the ledger recorded
+            return new MonthLine(
+                ym.getMonthValue(), ym.getYear(), from, to, true,
+                rs.getInt("bill_days"),
+                rs.getInt("bill_students"),
+                rs.getInt("bill_absent_days"),
+                rs.getInt("bill_mess_days"),
+                BigDecimal.valueOf(rs.getDouble("bill_rate")),
+                BillCalculationService.money(rs.getDouble("bill_subtotal")),
+                BigDecimal.valueOf(rs.getDouble("bill_gst_percent")),
+                BillCalculationService.money(rs.getDouble("bill_gst_amount")),
+                BillCalculationService.money(rs.getDouble("bill_fine")),
+                BillCalculationService.money(rs.getDouble("bill_total"))
+            );
+        }
+
+        int operatingDays = rs.getInt("operating_days");
+        if (rs.wasNull()) operatingDays = ym.lengthOfMonth();
+
+        int activeStudents = rs.getInt("active_students");
+        int monthAbsentDays = rs.getInt("absent_days");
+
+        BigDecimal monthFine = BigDecimal.valueOf(rs.getDouble("fine_amount"));
+
+        int billedDays;
+        int absentDays;
+        BigDecimal fine;
+        if (wholeMonth) {
+            billedDays = operatingDays;
+            absentDays = monthAbsentDays;
+            fine = monthFine;
+        } else {
+            int coveredDays = (int) ChronoUnit.DAYS.between(from, to) + 1;
+            int monthDays = ym.lengthOfMonth();
+            billedDays = (int) Math.round((double) operatingDays * coveredDays / monthDays);
+            absentDays = operatingDays == 0 ? 0
+                : (int) Math.round((double) monthAbsentDays * billedDays / operatingDays);
+            fine = monthFine.multiply(BigDecimal.valueOf(coveredDays))
+                    .divide(BigDecimal.valueOf(monthDays), MathContext.DECIMAL64);
+        }
+
+        // Same rounding as the single-month bill
+        int messDays = Math.max(0, activeStudents * billedDays - absentDays);
+        BigDecimal rate = BigDecimal.valueOf(perDayRate);
+        BigDecimal gst = BigDecimal.valueOf(gstPercent);
+        BigDecimal subtotal = BillCalculationService.subtotal(messDays, rate);
+        BigDecimal gstAmount = BillCalculationService.gstOn(subtotal, gst);
+        BigDecimal fineAmount = BillCalculationService.money(fine);
+
+        return new MonthLine(
+            ym.getMonthValue(), ym.getYear(), from, to, false,
+            billedDays, activeStudents, absentDays, messDays,
+            rate, subtotal, gst, gstAmount,
+            fineAmount, subtotal.add(gstAmount).add(fineAmount)
+        );
+    }
+}
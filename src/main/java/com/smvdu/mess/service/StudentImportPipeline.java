@@ -0,0 +1,329 @@
+package com.smvdu.mess.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.service.StudentImportService.StudentRow;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+/**
+ * Runs a student import as three stages connected by bounded queues:
+ *
+ *   parser thread -> validator thread -> batched writer (this task's thread)
+ *
+ * The parser only turns the file into rows, the validator rejects bad entry
+ * numbers, in-file duplicates and students that belong to another hostel
+ * (looked up a chunk of rows at a time), and the writer feeds
+ * {@link StudentImportService}, which stages rows chunk by chunk and only
+ * changes students once the whole file is through. Progress and log lines
+ * reach the UI at most every {@link #UI_UPDATE_INTERVAL_MS} milliseconds.
+ * Cancelling the task stops all stages and discards the staged rows; once
+ * the import has started committing, cancel() is refused so the outcome
+ * reported is always the one in the database.
+ */
+public class StudentImportPipeline extends Task<StudentImportPipeline.Result> {
+
+    private static final int QUEUE_CAPACITY = 1000;
+    private static final long UI_UPDATE_INTERVAL_MS = 100;
+
+    // Keeps each IN (...) well under SQLite's bound-parameter limit
+    private static final int LOOKUP_CHUNK = 500;
+
+    // Letters, digits, '/' or '-', and at least one digit (e.g. 2021BCE001, 21MCA-012)
+    private static final Pattern ENTRY_NUMBER = Pattern.compile("(?=.*\\d)[A-Za-z0-9/-]{4,20}");
+
+    // Marks the end of the stream on both queues
+    private static final StudentRow END = new StudentRow(-1, "", "", "", "", "");
+
+    /**
+     * Produces rows from an import file. Called on the parser thread.
+     */
+    public interface RowSource {
+        void read(RowSink sink) throws Exception;
+    }
+
+    public interface RowSink {
+        /** Hand one row to the pipeline; blocks while the validator is behind */
+        void accept(StudentRow row) throws InterruptedException;
+
+        /** How far through the file the parser is, 0.0 to 1.0 */
+        void progress(double fraction);
+    }
+
+    public static class Result {
+        public final int imported;
+        public final int errors;
+
+        public Result(int imported, int errors) {
+            this.imported = imported;
+            this.errors = errors;
+        }
+    }
+
+    private final int hostelId;
+    private final RowSource source;
+    private final Consumer<String> uiLog;
+
+    private final BlockingQueue<StudentRow> parsed = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<StudentRow> validated = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    // Guards the switch between cancellable and committing
+    private final Object commitLock = new Object();
+    private boolean committing;
+
+    private final ConcurrentLinkedQueue<String> pendingLog = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean logFlushScheduled = new AtomicBoolean();
+
+    private volatile double parsedFraction = -1;
+    private volatile Exception stageError;
+    private volatile int rejected;
+    private long lastUiUpdate;
+
+    /**
+     * @param uiLog receives batches of log lines on the FX thread
+     */
+    public StudentImportPipeline(int hostelId, RowSource source, Consumer<String> uiLog) {
+        this.hostelId = hostelId;
+        this.source = source;
+        this.uiLog = uiLog;
+    }
+
+    @Override
+    protected Result call() throws Exception {
+        Thread parser = stage("import-parser", this::parse);
+        Thread validator = stage("import-validator", this::validate);
+        parser.start();
+        validator.start();
+
+        try (StudentImportService importer = new StudentImportService(
+                hostelId, StudentImportService.configuredBatchSize(), this::log)) {
+
+            StudentRow row;
+            while ((row = validated.take()) != END) {
+                importer.add(row);
+                reportThrottled();
+            }
+
+            if (stageError != null) {
+                throw stageError; // Importer closes without finish(), so nothing is kept
+            }
+            synchronized (commitLock) {
+                if (isCancelled()) {
+                    throw new InterruptedException(); // Cancelled just as the last row arrived
+                }
+                committing = true;
+            }
+
+            // JDBC can't be interrupted, so from here on the import either commits or fails
+            importer.finish();
+            updateProgress(1, 1);
+
+            Result result = new Result(importer.getImported(), importer.getErrors() + rejected);
+            log("Import complete! Imported: " + result.imported + ", Errors: " + result.errors);
+            flushLog();
+            return result;
+
+        } catch (InterruptedException e) {
+            // cancel() interrupts this thread; closing the importer rolled back
+            log("Import cancelled. No students were changed.");
+            flushLog();
+            throw e;
+
+        } finally {
+            parser.interrupt();
+            validator.interrupt();
+        }
+    }
+
+    /**
+     * Refused once the import is committing; returns false then
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        synchronized (commitLock) {
+            if (committing) return false;
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+
+    // ===== STAGES =====
+
+    private void parse() {
+        try {
+            source.read(new RowSink() {
+                @Override
+                public void accept(StudentRow row) throws InterruptedException {
+                    parsed.put(row);
+                }
+
+                @Override
+                public void progress(double fraction) {
+                    parsedFraction = fraction;
+                }
+            });
+        } catch (InterruptedException e) {
+            return; // Cancelled, the writer is not waiting for END
+        } catch (Exception e) {
+            e.printStackTrace();
+            stageError = e;
+        }
+        putQuietly(parsed, END);
+    }
+
+    private void validate() {
+        Set<String> seen = new HashSet<>();
+        List<StudentRow> chunk = new ArrayList<>(LOOKUP_CHUNK);
+        int rejects = 0;
+
+        try {
+            StudentRow row;
+            while ((row = parsed.take()) != END) {
+                String reason = check(row, seen);
+                if (reason != null) {
+                    log("Skipping row " + row.rowNumber + ": " + reason);
+                    rejects++;
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == LOOKUP_CHUNK) {
+                    rejects += passOn(chunk);
+                }
+            }
+            rejects += passOn(chunk);
+
+        } catch (InterruptedException e) {
+            return;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            stageError = e;
+        }
+
+        rejected = rejects;
+        putQuietly(validated, END);
+    }
+
+    private String check(StudentRow row, Set<String> seen) {
+        if (row.entryNumber.isEmpty() || row.name.isEmpty()) {
+            return "Missing entry number or name";
+        }
+        if (!ENTRY_NUMBER.matcher(row.entryNumber).matches()) {
+            return "Invalid entry number '" + row.entryNumber + "'";
+        }
+
+        String key = row.entryNumber.toUpperCase(Locale.ROOT);
+        if (!seen.add(key)) {
+            return "Duplicate entry number " + row.entryNumber + " in file";
+        }
+        return null;
+    }
+
+    // Hand a chunk of checked rows to the writer, minus students of other hostels; returns the rejects
+    private int passOn(List<StudentRow> chunk) throws InterruptedException, SQLException {
+        if (chunk.isEmpty()) return 0;
+
+        Set<String> otherHostel = otherHostelEntries(chunk);
+        int rejects = 0;
+        for (StudentRow row : chunk) {
+            if (otherHostel.contains(row.entryNumber.toUpperCase(Locale.ROOT))) {
+                log("Skipping row " + row.rowNumber + ": Entry number " + row.entryNumber
+                        + " belongs to another hostel");
+                rejects++;
+                continue;
+            }
+            validated.put(row);
+        }
+        chunk.clear();
+        return rejects;
+    }
+
+    /**
+     * Entry numbers of the chunk already registered to other hostels, upper-cased.
+     * INSERT OR REPLACE would otherwise move those students into this
+     * hostel silently.
+     */
+    private Set<String> otherHostelEntries(List<StudentRow> chunk) throws SQLException {
+        Set<String> entries = new HashSet<>();
+
+        // Chunks share one cached statement per size
+        String sql = "SELECT entry_number FROM students WHERE hostel_id <> ? " +
+                     "AND entry_number COLLATE NOCASE IN (" + "?,".repeat(chunk.size() - 1) + "?)";
+
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(sql);
+            ps.setInt(1, hostelId);
+            for (int i = 0; i < chunk.size(); i++) {
+                ps.setString(i + 2, chunk.get(i).entryNumber);
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(rs.getString(1).toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private Thread stage(String name, Runnable body) {
+        Thread t = new Thread(body, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    private void putQuietly(BlockingQueue<StudentRow> queue, StudentRow row) {
+        try {
+            queue.put(row);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ===== THROTTLED UI UPDATES =====
+
+    private void log(String message) {
+        pendingLog.add(message);
+    }
+
+    private void reportThrottled() {
+        long now = System.currentTimeMillis();
+        if (now - lastUiUpdate < UI_UPDATE_INTERVAL_MS) return;
+        lastUiUpdate = now;
+
+        double fraction = parsedFraction;
+        if (fraction >= 0) {
+            updateProgress(fraction, 1);
+        }
+        flushLog();
+    }
+
+    private void flushLog() {
+        // At most one drain queued on the FX thread at a time
+        if (pendingLog.isEmpty() || !logFlushScheduled.compareAndSet(false, true)) return;
+
+        Platform.runLater(() -> {
+            logFlushScheduled.set(false);
+            StringBuilder lines = new StringBuilder();
+            String line;
+            while ((line = pendingLog.poll()) != null) {
+                lines.append(line).append('\n');
+            }
+            uiLog.accept(lines.toString());
+        });
+    }
+}
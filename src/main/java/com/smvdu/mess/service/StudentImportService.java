@@ -0,0 +1,263 @@
+package com.smvdu.mess.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.utils.MessUtils;
+
+/**
+ * Writes imported students for one hostel.
+ *
+ * Rows are first staged in student_import_staging, one short write per
+ * chunk, so other writers (attendance edits, finalizing bills) are not kept
+ * waiting while the file is still being parsed. finish() then copies the
+ * staged rows into students in a single transaction, a chunk at a time; a
+ * chunk that fails is rolled back to its savepoint and replayed row by row,
+ * so good rows are kept and each bad row is still reported with its row
+ * number. Entry numbers are matched ignoring case, both here (the unique
+ * index on students, schema v6) and by the pipeline's checks.
+ *
+ * Usage: add() every row, then finish() to commit. Closing without finish()
+ * discards the staged rows, leaving students untouched.
+ */
+public class StudentImportService implements AutoCloseable {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = """
+        INSERT OR REPLACE INTO students (entry_number, name, hostel_id, room_number, phone, email)
+        VALUES (?, ?, ?, ?, ?, ?)
+    """;
+
+    private static final String STAGE_SQL = """
+        INSERT INTO student_import_staging
+            (import_id, seq, row_number, entry_number, name, room_number, phone, email)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    private static final String APPLY_SQL = """
+        INSERT OR REPLACE INTO students (entry_number, name, hostel_id, room_number, phone, email)
+        SELECT entry_number, name, ?, room_number, phone, email
+        FROM student_import_staging
+        WHERE import_id = ? AND seq >= ? AND seq < ?
+        ORDER BY seq
+    """;
+
+    private static final String STAGED_ROWS_SQL = """
+        SELECT row_number, entry_number, name, room_number, phone, email
+        FROM student_import_staging
+        WHERE import_id = ? AND seq >= ? AND seq < ?
+        ORDER BY seq
+    """;
+
+    private static final String DISCARD_SQL = "DELETE FROM student_import_staging WHERE import_id = ?";
+
+    /**
+     * One parsed row from an import file
+     */
+    public static class StudentRow {
+        public final int rowNumber;
+        public final String entryNumber;
+        public final String name;
+        public final String roomNumber;
+        public final String phone;
+        public final String email;
+
+        public StudentRow(int rowNumber, String entryNumber, String name,
+                          String roomNumber, String phone, String email) {
+            this.rowNumber = rowNumber;
+            this.entryNumber = entryNumber;
+            this.name = name;
+            this.roomNumber = roomNumber;
+            this.phone = phone;
+            this.email = email;
+        }
+    }
+
+    private final int hostelId;
+    private final int batchSize;
+    private final Consumer<String> errorLog;
+    private final List<StudentRow> pending;
+    private final String importId = UUID.randomUUID().toString();
+
+    private int staged;
+    private int imported;
+    private int errors;
+    private boolean finished;
+
+    /**
+     * Start an import. Row errors are passed to errorLog.
+     */
+    public StudentImportService(int hostelId, int batchSize, Consumer<String> errorLog) {
+        this.hostelId = hostelId;
+        this.batchSize = Math.max(1, batchSize);
+        this.errorLog = errorLog;
+        this.pending = new ArrayList<>(this.batchSize);
+    }
+
+    /**
+     * Batch size from the optional 'import_batch_size' setting
+     */
+    public static int configuredBatchSize() {
+        return (int) MessUtils.getSetting("import_batch_size", DEFAULT_BATCH_SIZE);
+    }
+
+    public void add(StudentRow row) throws SQLException {
+        pending.add(row);
+        if (pending.size() >= batchSize) {
+            stageChunk();
+        }
+    }
+
+    /**
+     * Stage any remaining rows, then apply the whole import in one transaction
+     */
+    public void finish() throws SQLException {
+        stageChunk();
+
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+
+            try {
+                for (int from = 0; from < staged; from += batchSize) {
+                    applyChunk(conn, from, Math.min(staged, from + batchSize));
+                }
+
+                PreparedStatement discard = conn.prepare(DISCARD_SQL);
+                discard.setString(1, importId);
+                discard.executeUpdate();
+
+                connection.commit();
+                finished = true;
+
+            } catch (SQLException e) {
+                connection.rollback();
+                imported = 0;
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+
+        MessStatsCache.invalidateMess(MessUtils.getMessIdForHostel(hostelId));
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    // Holds the writer only for this chunk
+    private void stageChunk() throws SQLException {
+        if (pending.isEmpty()) return;
+
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+
+            try {
+                PreparedStatement ps = conn.prepare(STAGE_SQL);
+                int seq = staged;
+                for (StudentRow row : pending) {
+                    ps.setString(1, importId);
+                    ps.setInt(2, seq++);
+                    ps.setInt(3, row.rowNumber);
+                    ps.setString(4, row.entryNumber);
+                    ps.setString(5, row.name);
+                    ps.setString(6, row.roomNumber);
+                    ps.setString(7, row.phone);
+                    ps.setString(8, row.email);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                connection.commit();
+
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+
+        staged += pending.size();
+        pending.clear();
+    }
+
+    private void applyChunk(PooledConnection conn, int from, int to) throws SQLException {
+        Connection connection = conn.getConnection();
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            PreparedStatement apply = conn.prepare(APPLY_SQL);
+            apply.setInt(1, hostelId);
+            apply.setString(2, importId);
+            apply.setInt(3, from);
+            apply.setInt(4, to);
+            imported += apply.executeUpdate();
+            connection.releaseSavepoint(savepoint);
+
+        } catch (SQLException e) {
+            // Undo the partial chunk, then find the bad rows one at a time
+            connection.rollback(savepoint);
+            replayRowByRow(conn, from, to);
+        }
+    }
+
+    private void replayRowByRow(PooledConnection conn, int from, int to) throws SQLException {
+        List<StudentRow> rows = new ArrayList<>(to - from);
+        PreparedStatement select = conn.prepare(STAGED_ROWS_SQL);
+        select.setString(1, importId);
+        select.setInt(2, from);
+        select.setInt(3, to);
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                rows.add(new StudentRow(rs.getInt(1), rs.getString(2), rs.getString(3),
+                                        rs.getString(4), rs.getString(5), rs.getString(6)));
+            }
+        }
+
+        PreparedStatement insert = conn.prepare(INSERT_SQL);
+        for (StudentRow row : rows) {
+            try {
+                insert.setString(1, row.entryNumber);
+                insert.setString(2, row.name);
+                insert.setInt(3, hostelId);
+                insert.setString(4, row.roomNumber);
+                insert.setString(5, row.phone);
+                insert.setString(6, row.email);
+                insert.executeUpdate();
+                imported++;
+            } catch (SQLException e) {
+                // A failed statement is undone on its own; the transaction stays open
+                errorLog.accept("Error on row " + row.rowNumber + ": " + e.getMessage());
+                errors++;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (finished || staged == 0) return;
+
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            PreparedStatement discard = conn.prepare(DISCARD_SQL);
+            discard.setString(1, importId);
+            discard.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.smvdu.mess.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.models.Student;
+import com.smvdu.mess.models.StudentRecord;
+import com.smvdu.mess.utils.StudentSearchIndex;
+
+/**
+ * Keyset-paged reads of a mess's active students, ordered by entry number.
+ * Each page starts after the last entry number of the previous one, so
+ * fetching page 50 costs the same as fetching page 1.
+ */
+public class StudentPageQuery {
+
+    static final String PAGE_SQL = """
+        SELECT s.id, s.entry_number, s.name, s.hostel_id, s.room_number, s.phone, s.email, s.is_active,
+               COALESCE(sa.mess_days, ?) AS mess_days,
+               COALESCE(sa.absent_days, 0) AS absent_days
+        FROM students s
+        LEFT JOIN student_attendance sa ON sa.student_id = s.id
+            AND sa.month = ? AND sa.year = ?
+        WHERE s.hostel_id IN (SELECT id FROM hostels WHERE mess_id = ?)
+          AND s.is_active = 1
+          AND s.entry_number > ?
+        ORDER BY s.entry_number
+        LIMIT ?
+    """;
+
+    static final String COUNT_ACTIVE_SQL =
+        "SELECT COUNT(*) FROM students " +
+        "WHERE hostel_id IN (SELECT id FROM hostels WHERE mess_id = ?) AND is_active = 1";
+
+    /**
+     * Students after the given entry number ("" for the first page).
+     * A limit of 0 or less returns every remaining student.
+     */
+    public static List<Student> loadPage(int messId, int month, int year, int operatingDays,
+                                         String afterEntryNumber, int limit) throws SQLException {
+        List<Student> students = new ArrayList<>(limit > 0 ? limit : 256);
+
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(PAGE_SQL);
+            ps.setInt(1, operatingDays);
+            ps.setInt(2, month);
+            ps.setInt(3, year);
+            ps.setInt(4, messId);
+            ps.setString(5, afterEntryNumber == null ? "" : afterEntryNumber);
+            ps.setInt(6, limit > 0 ? limit : -1); // SQLite treats a negative LIMIT as no limit
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    students.add(new Student(readRecord(rs)));
+                }
+            }
+        }
+        return students;
+    }
+
+    private static StudentRecord readRecord(ResultSet rs) throws SQLException {
+        return new StudentRecord(
+            rs.getInt("id"),
+            rs.getString("entry_number"),
+            rs.getString("name"),
+            rs.getInt("hostel_id"),
+            rs.getString("room_number"),
+            rs.getString("phone"),
+            rs.getString("email"),
+            rs.getInt("is_active") == 1,
+            rs.getInt("mess_days"),
+            rs.getInt("absent_days")
+        );
+    }
+
+    /**
+     * Number of active students in the mess
+     */
+    public static int countActive(int messId) throws SQLException {
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(COUNT_ACTIVE_SQL);
+            ps.setInt(1, messId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Batch years present among the mess's active students, newest first
+     */
+    public static List<Integer> batchYears(int messId) throws SQLException {
+        TreeSet<Integer> years = new TreeSet<>((a, b) -> Integer.compare(b, a));
+
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(
+                "SELECT DISTINCT substr(entry_number, 1, 2) FROM students " +
+                "WHERE hostel_id IN (SELECT id FROM hostels WHERE mess_id = ?) AND is_active = 1"
+            );
+            ps.setInt(1, messId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int year = StudentSearchIndex.batchYearOf(rs.getString(1));
+                    if (year != 0) years.add(year);
+                }
+            }
+        }
+        return new ArrayList<>(years);
+    }
+}
@@ -0,0 +1,100 @@
+package com.smvdu.mess.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+
+/**
+ * Search students of every mess through the students_fts trigram index.
+ * Matches anywhere inside a name or entry number, ranked by bm25 with
+ * entry-number hits weighted above name hits.
+ */
+public class StudentSearchService {
+
+    // The trigram tokenizer cannot match anything shorter
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private static final String SEARCH_SQL = """
+        SELECT s.id, s.entry_number, s.name, s.room_number, s.is_active,
+               h.name AS hostel_name, m.id AS mess_id, m.name AS mess_name
+        FROM students_fts f
+        JOIN students s ON s.id = f.rowid
+        LEFT JOIN hostels h ON h.id = s.hostel_id
+        LEFT JOIN messes m ON m.id = h.mess_id
+        WHERE students_fts MATCH ?
+        ORDER BY bm25(students_fts, 2.0, 1.0)
+        LIMIT ?
+    """;
+
+    /**
+     * One ranked match, with the hostel and mess it belongs to
+     */
+    public static class SearchHit {
+        public final int studentId;
+        public final String entryNumber;
+        public final String name;
+        public final String roomNumber;
+        public final boolean active;
+        public final String hostelName;
+        public final int messId;
+        public final String messName;
+
+        public SearchHit(int studentId, String entryNumber, String name, String roomNumber, boolean active,
+                         String hostelName, int messId, String messName) {
+            this.studentId = studentId;
+            this.entryNumber = entryNumber;
+            this.name = name;
+            this.roomNumber = roomNumber;
+            this.active = active;
+            this.hostelName = hostelName;
+            this.messId = messId;
+            this.messName = messName;
+        }
+    }
+
+    /**
+     * Best matches for a partial name or entry number, at most limit rows.
+     * Queries shorter than {@link #MIN_QUERY_LENGTH} return nothing.
+     */
+    public static List<SearchHit> search(String query, int limit) throws SQLException {
+        List<SearchHit> hits = new ArrayList<>();
+        String q = query == null ? "" : query.trim();
+        if (q.length() < MIN_QUERY_LENGTH) {
+            return hits;
+        }
+
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(SEARCH_SQL);
+            ps.setString(1, phrase(q));
+            ps.setInt(2, limit);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    hits.add(new SearchHit(
+                            rs.getInt("id"),
+                            rs.getString("entry_number"),
+                            rs.getString("name"),
+                            rs.getString("room_number"),
+                            rs.getInt("is_active") == 1,
+                            rs.getString("hostel_name"),
+                            rs.getInt("mess_id"),
+                            rs.getString("mess_name")
+                    ));
+                }
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Quote user text as one FTS5 phrase so operators like OR, NEAR or '-' are literal
+     */
+    private static String phrase(String text) {
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
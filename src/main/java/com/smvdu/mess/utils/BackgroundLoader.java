@@ -0,0 +1,79 @@
+package com.smvdu.mess.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javafx.concurrent.Task;
+
+/**
+ * Runs database work off the JavaFX application thread.
+ * Success and error callbacks are delivered on the FX thread, and are
+ * skipped if the task was cancelled first.
+ */
+public class BackgroundLoader {
+
+    private static final int WORKER_THREADS = 3;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(WORKER_THREADS, r -> {
+        Thread t = new Thread(r, "db-loader-" + THREAD_COUNTER.incrementAndGet());
+        t.setDaemon(true); // Never keep the app alive after the window closes
+        return t;
+    });
+
+    /**
+     * Run work in the background and hand the result to onSuccess on the FX thread
+     */
+    public static <T> Task<T> run(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+
+        task.setOnSucceeded(e -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(e -> {
+            Throwable error = task.getException();
+            error.printStackTrace();
+            onError.accept(error);
+        });
+
+        EXECUTOR.execute(task);
+        return task;
+    }
+
+    /**
+     * Run a task that manages its own callbacks and progress on the loader pool
+     */
+    public static <T> Task<T> start(Task<T> task) {
+        EXECUTOR.execute(task);
+        return task;
+    }
+
+    /**
+     * Tracks the latest load of one kind (e.g. "bill for selected month").
+     * Starting a new load cancels the previous one, so a slow stale result
+     * can never overwrite a newer one on screen.
+     */
+    public static class LatestLoad {
+        private Task<?> current;
+
+        public <T> Task<T> run(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+            cancel();
+            Task<T> task = BackgroundLoader.run(work, onSuccess, onError);
+            current = task;
+            return task;
+        }
+
+        public void cancel() {
+            if (current != null) {
+                current.cancel();
+                current = null;
+            }
+        }
+    }
+}
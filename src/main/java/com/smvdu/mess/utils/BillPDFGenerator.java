@@ -1,16 +1,23 @@
 package com.smvdu.mess.utils;
 
-import java.time.LocalDate;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 
-import com.itextpdf.io.font.constants.StandardFonts;
-import com.itextpdf.kernel.colors.DeviceGray;
 import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
 import com.itextpdf.kernel.pdf.canvas.draw.SolidLine;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.LineSeparator;
@@ -18,273 +25,367 @@ import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import com.itextpdf.layout.properties.VerticalAlignment;
+import com.itextpdf.layout.renderer.CellRenderer;
+import com.itextpdf.layout.renderer.DrawContext;
+import com.itextpdf.layout.renderer.IRenderer;
+import com.smvdu.mess.models.Bill;
 
+/**
+ * Renders mess bills onto a pre-built page template.
+ *
+ * The letterhead, the labelled bill tables, the signature block and the
+ * footer are laid out once into a one-page template, and the position of
+ * every value cell is recorded. Each bill stamps that page as a form
+ * XObject and writes only its values into the recorded cells, so no layout
+ * runs per bill. All values come from the {@link Bill}.
+ *
+ * The fine row is part of the template and shows ₹0.00 when there is no fine.
+ */
 public class BillPDFGenerator {
-    
-    public static void generateBillPDF(
-            String filePath,
-            String universityName,
-            String hostelName,
-            String hostelCode,
-            String billPeriod,
-            int daysInPeriod,
-            int totalStudents,
-            int totalStudentDays,
-            int totalAbsentDays,
-            int totalMessDays,
-            double perDayRate,
-            double subtotal,
-            double gstPercent,
-            double gstAmount,
-            double totalAmount,
-            double fineAmount,
-            String preparedBy,
-            LocalDate generatedDate) throws Exception {
-        
-        // Create PDF writer
-        PdfWriter writer = new PdfWriter(filePath);
-        PdfDocument pdfDoc = new PdfDocument(writer);
-        Document document = new Document(pdfDoc);
-        
-        // Set fonts
-        PdfFont boldFont = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
-        PdfFont regularFont = PdfFontFactory.createFont(StandardFonts.HELVETICA);
-        
-        // ===== HEADER SECTION =====
-        Paragraph universityHeader = new Paragraph(universityName)
-                .setFont(boldFont)
-                .setFontSize(18)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(5);
-        document.add(universityHeader);
-        
-        Paragraph addressLine = new Paragraph("Katra, Jammu & Kashmir - 182320")
-                .setFont(regularFont)
-                .setFontSize(10)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(2);
-        document.add(addressLine);
-        
-        Paragraph phoneEmail = new Paragraph("Phone: +91-1991-251201 | Email: registrar@smvdu.ac.in")
-                .setFont(regularFont)
-                .setFontSize(9)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(15);
-        document.add(phoneEmail);
-        
-        // Separator line - FIXED: Added SolidLine parameter
-        LineSeparator separator1 = new LineSeparator(new SolidLine());
-        document.add(separator1);
-        
-        // ===== BILL TITLE =====
-        Paragraph billTitle = new Paragraph("MESS BILL")
-                .setFont(boldFont)
-                .setFontSize(16)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginTop(10)
-                .setMarginBottom(10);
-        document.add(billTitle);
-        
-        // ===== HOSTEL INFO =====
-        Table hostelInfoTable = new Table(new float[]{0.5f, 0.5f});
-        hostelInfoTable.setWidth(UnitValue.createPercentValue(100));
-        hostelInfoTable.setMarginBottom(15);
-        
-        addInfoRow(hostelInfoTable, "Hostel Name:", hostelName, boldFont, regularFont);
-        addInfoRow(hostelInfoTable, "Hostel Code:", hostelCode, boldFont, regularFont);
-        addInfoRow(hostelInfoTable, "Billing Period:", billPeriod, boldFont, regularFont);
-        
-        document.add(hostelInfoTable);
-        
-        // Separator - FIXED
-        document.add(new LineSeparator(new SolidLine()));
-        
-        // ===== BILL DETAILS TABLE =====
-        Table detailsTable = new Table(new float[]{0.6f, 0.4f});
-        detailsTable.setWidth(UnitValue.createPercentValue(100));
-        detailsTable.setMarginTop(15);
-        detailsTable.setMarginBottom(15);
-        
-        // Header row
-        Cell headerLabelCell = new Cell()
-                .add(new Paragraph("Description").setFont(boldFont).setFontSize(11))
-                .setBackgroundColor(new DeviceGray(0.8f))
-                .setPadding(8);
-        detailsTable.addHeaderCell(headerLabelCell);
-        
-        Cell headerValueCell = new Cell()
-                .add(new Paragraph("Value").setFont(boldFont).setFontSize(11))
-                .setBackgroundColor(new DeviceGray(0.8f))
-                .setTextAlignment(TextAlignment.RIGHT)
-                .setPadding(8);
-        detailsTable.addHeaderCell(headerValueCell);
-        
-        // Details rows
-        addDetailRow(detailsTable, "Days in Billing Period", String.valueOf(daysInPeriod), regularFont);
-        addDetailRow(detailsTable, "Total Students", String.valueOf(totalStudents), regularFont);
-        addDetailRow(detailsTable, "Total Student-Days", String.valueOf(totalStudentDays), regularFont);
-        addDetailRow(detailsTable, "Total Student Leave Days", String.valueOf(totalAbsentDays), regularFont);
-        addDetailRow(detailsTable, "Net Mess Days (Chargeable)", String.valueOf(totalMessDays), regularFont, true);
-        addDetailRow(detailsTable, "Per Day Rate", "₹" + String.format("%.2f", perDayRate), regularFont);
-        
-        document.add(detailsTable);
-        
-        // Separator - FIXED
-        document.add(new LineSeparator(new SolidLine()));
-        
-        // ===== FINANCIAL SUMMARY =====
-        Table financialTable = new Table(new float[]{0.6f, 0.4f});
-        financialTable.setWidth(UnitValue.createPercentValue(100));
-        financialTable.setMarginTop(15);
-        financialTable.setMarginBottom(20);
-          if (fineAmount > 0) {
-        addFinancialRow(financialTable, "Fine Amount", "₹" + String.format("%.2f", fineAmount), regularFont);
+
+    private static final String UNIVERSITY_NAME = "SHRI MATA VAISHNO DEVI UNIVERSITY";
+
+    private static final PageSize PAGE = PageSize.A4;
+    private static final float MARGIN = 36;
+
+    // Fixed positions of the footer area, from the bottom of the page
+    private static final float DISCLAIMER_Y = 40;
+    private static final float GENERATED_Y = 54;
+    private static final float ROLE_Y = 110;
+    private static final float SIGN_LINE_Y = 124;
+    private static final float PREPARED_BY_Y = 140;
+    private static final float FOOTER_RULE_Y = 180;
+
+    // Helvetica cap height, for centering a line of text in a cell
+    private static final float CAP_HEIGHT = 0.718f;
+
+    // A value too wide for its cell is shrunk down to this share of its size, then shortened
+    private static final float MIN_FONT_SCALE = 0.75f;
+    private static final String ELLIPSIS = "...";
+
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy");
+    private static final DateTimeFormatter GENERATED_FORMAT = DateTimeFormatter.ofPattern("dd MMMM yyyy HH:mm:ss");
+
+    /**
+     * A place on the template where each bill writes one value
+     */
+    private enum Slot {
+        MESS_NAME(TextAlignment.LEFT, false, 10, 3),
+        MESS_CODE(TextAlignment.LEFT, false, 10, 3),
+        PERIOD(TextAlignment.LEFT, false, 10, 3),
+        DAYS(TextAlignment.RIGHT, false, 10, 6),
+        STUDENTS(TextAlignment.RIGHT, false, 10, 6),
+        STUDENT_DAYS(TextAlignment.RIGHT, false, 10, 6),
+        ABSENT_DAYS(TextAlignment.RIGHT, false, 10, 6),
+        MESS_DAYS(TextAlignment.RIGHT, false, 10, 6),
+        RATE(TextAlignment.RIGHT, false, 10, 6),
+        FINE(TextAlignment.RIGHT, false, 11, 8),
+        SUBTOTAL(TextAlignment.RIGHT, false, 11, 8),
+        GST_LABEL(TextAlignment.LEFT, false, 11, 8),
+        GST(TextAlignment.RIGHT, false, 11, 8),
+        TOTAL(TextAlignment.RIGHT, true, 12, 10),
+        PREPARED_BY(TextAlignment.CENTER, true, 10, 0),
+        GENERATED_ON(TextAlignment.CENTER, false, 8, 0);
+
+        final TextAlignment alignment;
+        final boolean bold;
+        final float fontSize;
+        final float padding;
+
+        Slot(TextAlignment alignment, boolean bold, float fontSize, float padding) {
+            this.alignment = alignment;
+            this.bold = bold;
+            this.fontSize = fontSize;
+            this.padding = padding;
+        }
     }
-        
-        addFinancialRow(financialTable, "Subtotal", "₹" + String.format("%.2f", subtotal), regularFont);
-        addFinancialRow(financialTable, "GST (" + String.format("%.1f%%", gstPercent) + ")", "₹" + String.format("%.2f", gstAmount), regularFont);
-        
-        // Total row
-        Cell totalLabelCell = new Cell()
-                .add(new Paragraph("TOTAL AMOUNT DUE").setFont(boldFont).setFontSize(12))
-                .setBackgroundColor(new DeviceGray(0.9f))
-                .setPadding(10);
-        financialTable.addCell(totalLabelCell);
-        
-        Cell totalValueCell = new Cell()
-                .add(new Paragraph("₹" + String.format("%.2f", totalAmount))
-                        .setFont(boldFont)
-                        .setFontSize(12))
-                .setBackgroundColor(new DeviceGray(0.9f))
-                .setTextAlignment(TextAlignment.RIGHT)
-                .setPadding(10);
-        financialTable.addCell(totalValueCell);
-        
-        document.add(financialTable);
-        
-        // ===== FOOTER SECTION =====
-        document.add(new Paragraph("\n")); // Space
-        document.add(new LineSeparator(new SolidLine())); // FIXED
-        document.add(new Paragraph("\n")); // Space
-        
-        // Signature section
-        Table signatureTable = new Table(new float[]{0.33f, 0.33f, 0.33f});
-        signatureTable.setWidth(UnitValue.createPercentValue(100));
-        signatureTable.setMarginTop(20);
-        
-        Cell preparedCell = new Cell()
-                .add(new Paragraph("\n\n" + preparedBy)
+
+    // The static page and its value cells, built on first use and read-only afterwards
+    private static class Template {
+        static final Template INSTANCE = build();
+
+        final byte[] pdf;
+        final Map<Slot, Rectangle> slots;
+
+        Template(byte[] pdf, Map<Slot, Rectangle> slots) {
+            this.pdf = pdf;
+            this.slots = Collections.unmodifiableMap(slots);
+        }
+
+        private static Template build() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Map<Slot, Rectangle> slots = new EnumMap<>(Slot.class);
+
+            try (Document document = new Document(new PdfDocument(new PdfWriter(out)), PAGE)) {
+                PdfRenderContext ctx = PdfRenderContext.create();
+                PdfFont boldFont = ctx.bold();
+                PdfFont regularFont = ctx.regular();
+
+                // ===== LETTERHEAD =====
+                document.add(new Paragraph(UNIVERSITY_NAME)
                         .setFont(boldFont)
-                        .setFontSize(10)
-                        .setTextAlignment(TextAlignment.CENTER))
-                .add(new Paragraph("_______________")
+                        .setFontSize(18)
                         .setTextAlignment(TextAlignment.CENTER)
-                        .setFontSize(10))
-                .add(new Paragraph("Prepared by: Caretaker")
+                        .setMarginBottom(5));
+
+                document.add(new Paragraph("Katra, Jammu & Kashmir - 182320")
                         .setFont(regularFont)
-                        .setFontSize(9)
-                        .setTextAlignment(TextAlignment.CENTER))
-                .setBorder(null);
-        signatureTable.addCell(preparedCell);
-        
-        Cell verifiedCell = new Cell()
-                .add(new Paragraph("\n\n\n")
-                        .setTextAlignment(TextAlignment.CENTER))
-                .add(new Paragraph("_______________")
+                        .setFontSize(10)
                         .setTextAlignment(TextAlignment.CENTER)
-                        .setFontSize(10))
-                .add(new Paragraph("Verified by: Admin")
+                        .setMarginBottom(2));
+
+                document.add(new Paragraph("Phone: +91-1991-251201 | Email: registrar@smvdu.ac.in")
                         .setFont(regularFont)
                         .setFontSize(9)
-                        .setTextAlignment(TextAlignment.CENTER))
-                .setBorder(null);
-        signatureTable.addCell(verifiedCell);
-        
-        Cell approvedCell = new Cell()
-                .add(new Paragraph("\n\n\n")
-                        .setTextAlignment(TextAlignment.CENTER))
-                .add(new Paragraph("_______________")
                         .setTextAlignment(TextAlignment.CENTER)
-                        .setFontSize(10))
-                .add(new Paragraph("Approved by: Authority")
-                        .setFont(regularFont)
-                        .setFontSize(9)
-                        .setTextAlignment(TextAlignment.CENTER))
-                .setBorder(null);
-        signatureTable.addCell(approvedCell);
-        
-        document.add(signatureTable);
-        
-        // Generation date
-        document.add(new Paragraph("\n"));
-        
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMMM yyyy HH:mm:ss");
-        Paragraph dateFooter = new Paragraph("Generated on: " + LocalDateTime.now().format(formatter))
-                .setFont(regularFont)
-                .setFontSize(8)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginTop(20);
-        document.add(dateFooter);
-        
-        Paragraph footer = new Paragraph("This is a computer-generated bill and does not require a signature.")
-                .setFont(regularFont)
-                .setFontSize(7)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginTop(5)
-                .setFontColor(new DeviceGray(0.5f));
-        document.add(footer);
-        
-        // Close document
-        document.close();
+                        .setMarginBottom(15));
+
+                document.add(new LineSeparator(new SolidLine()));
+
+                document.add(new Paragraph("MESS BILL")
+                        .setFont(boldFont)
+                        .setFontSize(16)
+                        .setTextAlignment(TextAlignment.CENTER)
+                        .setMarginTop(10)
+                        .setMarginBottom(10));
+
+                // ===== HOSTEL INFO =====
+                // Fixed column widths: the value cells are empty on the template
+                Table hostelInfoTable = new Table(UnitValue.createPercentArray(new float[]{35, 65}));
+                hostelInfoTable.setWidth(UnitValue.createPercentValue(100));
+                hostelInfoTable.setMarginBottom(15);
+
+                addInfoRow(hostelInfoTable, "Hostel Name:", Slot.MESS_NAME, boldFont, slots);
+                addInfoRow(hostelInfoTable, "Hostel Code:", Slot.MESS_CODE, boldFont, slots);
+                addInfoRow(hostelInfoTable, "Billing Period:", Slot.PERIOD, boldFont, slots);
+
+                document.add(hostelInfoTable);
+                document.add(new LineSeparator(new SolidLine()));
+
+                // ===== BILL DETAILS TABLE =====
+                Table detailsTable = new Table(UnitValue.createPercentArray(new float[]{60, 40}));
+                detailsTable.setWidth(UnitValue.createPercentValue(100));
+                detailsTable.setMarginTop(15);
+                detailsTable.setMarginBottom(15);
+
+                detailsTable.addHeaderCell(new Cell()
+                        .add(new Paragraph("Description").setFont(boldFont).setFontSize(11))
+                        .setBackgroundColor(PdfRenderContext.HEADER_GRAY)
+                        .setPadding(8));
+                detailsTable.addHeaderCell(new Cell()
+                        .add(new Paragraph("Value").setFont(boldFont).setFontSize(11))
+                        .setBackgroundColor(PdfRenderContext.HEADER_GRAY)
+                        .setTextAlignment(TextAlignment.RIGHT)
+                        .setPadding(8));
+
+                addDetailRow(detailsTable, "Days in Billing Period", Slot.DAYS, regularFont, false, slots);
+                addDetailRow(detailsTable, "Total Students", Slot.STUDENTS, regularFont, false, slots);
+                addDetailRow(detailsTable, "Total Student-Days", Slot.STUDENT_DAYS, regularFont, false, slots);
+                addDetailRow(detailsTable, "Total Student Leave Days", Slot.ABSENT_DAYS, regularFont, false, slots);
+                addDetailRow(detailsTable, "Net Mess Days (Chargeable)", Slot.MESS_DAYS, regularFont, true, slots);
+                addDetailRow(detailsTable, "Per Day Rate", Slot.RATE, regularFont, false, slots);
+
+                document.add(detailsTable);
+                document.add(new LineSeparator(new SolidLine()));
+
+                // ===== FINANCIAL SUMMARY =====
+                Table financialTable = new Table(UnitValue.createPercentArray(new float[]{60, 40}));
+                financialTable.setWidth(UnitValue.createPercentValue(100));
+                financialTable.setMarginTop(15);
+
+                addFinancialRow(financialTable, labelCell("Fine Amount", regularFont), Slot.FINE, slots);
+                addFinancialRow(financialTable, labelCell("Subtotal", regularFont), Slot.SUBTOTAL, slots);
+                addFinancialRow(financialTable, slotCell(Slot.GST_LABEL, slots), Slot.GST, slots);
+
+                financialTable.addCell(new Cell()
+                        .add(new Paragraph("TOTAL AMOUNT DUE").setFont(boldFont).setFontSize(12))
+                        .setBackgroundColor(PdfRenderContext.TOTAL_GRAY)
+                        .setPadding(10));
+                financialTable.addCell(slotCell(Slot.TOTAL, slots)
+                        .setBackgroundColor(PdfRenderContext.TOTAL_GRAY));
+
+                document.add(financialTable);
+
+                // ===== SIGNATURE BLOCK =====
+                PdfCanvas canvas = new PdfCanvas(document.getPdfDocument().getPage(1));
+                canvas.setLineWidth(1)
+                      .moveTo(MARGIN, FOOTER_RULE_Y)
+                      .lineTo(PAGE.getWidth() - MARGIN, FOOTER_RULE_Y)
+                      .stroke();
+
+                float columnWidth = (PAGE.getWidth() - 2 * MARGIN) / 3;
+                String[] roles = {"Prepared by: Caretaker", "Verified by: Admin", "Approved by: Authority"};
+                for (int i = 0; i < roles.length; i++) {
+                    float x = MARGIN + columnWidth * i + columnWidth / 2;
+                    document.showTextAligned(new Paragraph("_______________").setFontSize(10),
+                            x, SIGN_LINE_Y, 1, TextAlignment.CENTER, VerticalAlignment.BOTTOM, 0);
+                    document.showTextAligned(new Paragraph(roles[i]).setFont(regularFont).setFontSize(9),
+                            x, ROLE_Y, 1, TextAlignment.CENTER, VerticalAlignment.BOTTOM, 0);
+                }
+                slots.put(Slot.PREPARED_BY, new Rectangle(MARGIN, PREPARED_BY_Y, columnWidth, 10));
+
+                // ===== FOOTER =====
+                slots.put(Slot.GENERATED_ON, new Rectangle(MARGIN, GENERATED_Y, PAGE.getWidth() - 2 * MARGIN, 8));
+
+                document.showTextAligned(
+                        new Paragraph("This is a computer-generated bill and does not require a signature.")
+                                .setFont(regularFont)
+                                .setFontSize(7)
+                                .setFontColor(PdfRenderContext.MUTED_GRAY),
+                        PAGE.getWidth() / 2, DISCLAIMER_Y, 1, TextAlignment.CENTER, VerticalAlignment.BOTTOM, 0);
+            }
+
+            if (slots.size() != Slot.values().length) {
+                throw new IllegalStateException("Bill template is missing value cells: " + slots.keySet());
+            }
+            return new Template(out.toByteArray(), slots);
+        }
     }
-    
-    private static void addInfoRow(Table table, String label, String value, PdfFont boldFont, PdfFont regularFont) {
-        Cell labelCell = new Cell()
-                .add(new Paragraph(label).setFont(boldFont).setFontSize(10))
-                .setBorder(null)
-                .setPadding(3);
-        table.addCell(labelCell);
-        
-        Cell valueCell = new Cell()
-                .add(new Paragraph(value).setFont(regularFont).setFontSize(10))
-                .setBorder(null)
-                .setPadding(3);
-        table.addCell(valueCell);
+
+    public static void generateBillPDF(String filePath, Bill bill, String preparedBy) throws Exception {
+        Template template = Template.INSTANCE;
+
+        Map<Slot, String> values = new EnumMap<>(Slot.class);
+        values.put(Slot.MESS_NAME, bill.getMessName());
+        values.put(Slot.MESS_CODE, bill.getMessCode());
+        values.put(Slot.PERIOD, bill.getPeriodStart().format(PERIOD_FORMAT) + " to " + bill.getPeriodEnd().format(PERIOD_FORMAT));
+        values.put(Slot.DAYS, String.valueOf(bill.getOperatingDays()));
+        values.put(Slot.STUDENTS, String.valueOf(bill.getTotalStudents()));
+        values.put(Slot.STUDENT_DAYS, String.valueOf(bill.getTotalStudentDays()));
+        values.put(Slot.ABSENT_DAYS, String.valueOf(bill.getTotalAbsentDays()));
+        values.put(Slot.MESS_DAYS, String.valueOf(bill.getTotalMessDays()));
+        values.put(Slot.RATE, bill.getPerDayRate() != null
+            ? "₹" + String.format("%.2f", bill.getPerDayRate()) : "Varies by month");
+        values.put(Slot.FINE, "₹" + String.format("%.2f", bill.getFineAmount()));
+        values.put(Slot.SUBTOTAL, "₹" + String.format("%.2f", bill.getSubtotal()));
+        values.put(Slot.GST_LABEL, bill.getGstPercent() != null
+            ? "GST (" + String.format("%.1f%%", bill.getGstPercent()) + ")" : "GST (varies)");
+        values.put(Slot.GST, "₹" + String.format("%.2f", bill.getGstAmount()));
+        values.put(Slot.TOTAL, "₹" + String.format("%.2f", bill.getTotalAmount()));
+        values.put(Slot.PREPARED_BY, preparedBy);
+        values.put(Slot.GENERATED_ON, "Generated on: " + LocalDateTime.now().format(GENERATED_FORMAT));
+
+        // The template is a few KB; parsing it per bill keeps nothing open between bills
+        try (PdfDocument source = new PdfDocument(new PdfReader(new ByteArrayInputStream(template.pdf)));
+             PdfDocument pdfDoc = new PdfDocument(new PdfWriter(filePath,
+                     new WriterProperties().setFullCompressionMode(true)))) {
+            PdfFormXObject page = source.getFirstPage().copyAsFormXObject(pdfDoc);
+
+            PdfCanvas canvas = new PdfCanvas(pdfDoc.addNewPage(PAGE));
+            canvas.addXObjectAt(page, 0, 0);
+
+            PdfRenderContext ctx = PdfRenderContext.create();
+            for (Map.Entry<Slot, String> value : values.entrySet()) {
+                Slot slot = value.getKey();
+                stamp(canvas, template.slots.get(slot), slot, value.getValue(), slot.bold ? ctx.bold() : ctx.regular());
+            }
+        }
     }
-    
-    private static void addDetailRow(Table table, String label, String value, PdfFont font) {
-        addDetailRow(table, label, value, font, false);
+
+    // One line of text inside a recorded cell, kept within its padding
+    private static void stamp(PdfCanvas canvas, Rectangle cell, Slot slot, String text, PdfFont font) {
+        if (text == null || text.isEmpty()) return;
+
+        float available = cell.getWidth() - 2 * slot.padding;
+        float fontSize = slot.fontSize;
+        float width = font.getWidth(text, fontSize);
+        if (width > available) {
+            fontSize = Math.max(slot.fontSize * MIN_FONT_SCALE, slot.fontSize * available / width);
+            text = fit(text, font, fontSize, available);
+            width = font.getWidth(text, fontSize);
+        }
+
+        float x;
+        switch (slot.alignment) {
+            case RIGHT:
+                x = cell.getRight() - slot.padding - width;
+                break;
+            case CENTER:
+                x = cell.getLeft() + (cell.getWidth() - width) / 2;
+                break;
+            default:
+                x = cell.getLeft() + slot.padding;
+        }
+        float baseline = cell.getBottom() + (cell.getHeight() - fontSize * CAP_HEIGHT) / 2;
+
+        canvas.beginText()
+              .setFontAndSize(font, fontSize)
+              .moveText(x, baseline)
+              .showText(text)
+              .endText();
     }
-    
-    private static void addDetailRow(Table table, String label, String value, PdfFont font, boolean highlight) {
-        Cell labelCell = new Cell()
-                .add(new Paragraph(label).setFont(font).setFontSize(10))
-                .setPadding(6);
-        if (highlight) {
-            labelCell.setBackgroundColor(new DeviceGray(0.95f));
+
+    // The text, or as much of it as fits followed by "..."
+    private static String fit(String text, PdfFont font, float fontSize, float available) {
+        if (font.getWidth(text, fontSize) <= available) return text;
+
+        float room = available - font.getWidth(ELLIPSIS, fontSize);
+        int end = text.length();
+        while (end > 0 && font.getWidth(text.substring(0, end), fontSize) > room) {
+            end--;
         }
-        table.addCell(labelCell);
-        
-        Cell valueCell = new Cell()
-                .add(new Paragraph(value).setFont(font).setFontSize(10))
-                .setTextAlignment(TextAlignment.RIGHT)
-                .setPadding(6);
-        if (highlight) {
-            valueCell.setBackgroundColor(new DeviceGray(0.95f));
+        return text.substring(0, end).stripTrailing() + ELLIPSIS;
+    }
+
+    private static Cell labelCell(String label, PdfFont font) {
+        return new Cell().add(new Paragraph(label).setFont(font));
+    }
+
+    // An empty cell the height of one line of its slot's text, recorded once drawn
+    private static Cell slotCell(Slot slot, Map<Slot, Rectangle> slots) {
+        Cell cell = new Cell()
+                .add(new Paragraph(" ").setFontSize(slot.fontSize))
+                .setPadding(slot.padding);
+        cell.setNextRenderer(new SlotRenderer(cell, slot, slots));
+        return cell;
+    }
+
+    // Remembers where a value cell was drawn on the template
+    private static class SlotRenderer extends CellRenderer {
+        private final Slot slot;
+        private final Map<Slot, Rectangle> slots;
+
+        SlotRenderer(Cell cell, Slot slot, Map<Slot, Rectangle> slots) {
+            super(cell);
+            this.slot = slot;
+            this.slots = slots;
         }
-        table.addCell(valueCell);
+
+        @Override
+        public void draw(DrawContext drawContext) {
+            super.draw(drawContext);
+            slots.put(slot, getOccupiedAreaBBox());
+        }
+
+        @Override
+        public IRenderer getNextRenderer() {
+            return new SlotRenderer((Cell) getModelElement(), slot, slots);
+        }
+    }
+
+    private static void addInfoRow(Table table, String label, Slot slot, PdfFont boldFont, Map<Slot, Rectangle> slots) {
+        table.addCell(new Cell()
+                .add(new Paragraph(label).setFont(boldFont))
+                .addStyle(PdfRenderContext.INFO_CELL));
+        table.addCell(slotCell(slot, slots)
+                .addStyle(PdfRenderContext.INFO_CELL));
     }
-    
-    private static void addFinancialRow(Table table, String label, String value, PdfFont font) {
-        Cell labelCell = new Cell()
-                .add(new Paragraph(label).setFont(font).setFontSize(11))
-                .setPadding(8);
+
+    private static void addDetailRow(Table table, String label, Slot slot, PdfFont font,
+                                     boolean highlight, Map<Slot, Rectangle> slots) {
+        Cell labelCell = labelCell(label, font).addStyle(PdfRenderContext.DETAIL_CELL);
+        Cell valueCell = slotCell(slot, slots).addStyle(PdfRenderContext.DETAIL_CELL);
+        if (highlight) {
+            labelCell.setBackgroundColor(PdfRenderContext.HIGHLIGHT_GRAY);
+            valueCell.setBackgroundColor(PdfRenderContext.HIGHLIGHT_GRAY);
+        }
         table.addCell(labelCell);
-        
-        Cell valueCell = new Cell()
-                .add(new Paragraph(value).setFont(font).setFontSize(11))
-                .setTextAlignment(TextAlignment.RIGHT)
-                .setPadding(8);
         table.addCell(valueCell);
     }
+
+    private static void addFinancialRow(Table table, Cell labelCell, Slot slot, Map<Slot, Rectangle> slots) {
+        table.addCell(labelCell.addStyle(PdfRenderContext.FINANCIAL_CELL));
+        table.addCell(slotCell(slot, slots).addStyle(PdfRenderContext.FINANCIAL_CELL));
+    }
 }
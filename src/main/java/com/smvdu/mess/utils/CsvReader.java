@@ -0,0 +1,227 @@
+package com.smvdu.mess.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * RFC 4180 CSV reader for import files.
+ *
+ * Handles quoted fields (including commas and line breaks inside quotes),
+ * doubled quotes as escapes, LF or CRLF line endings and a UTF-8 BOM.
+ * Each record is tokenized into one reused char buffer; a String is only
+ * created when a field is read with {@link #get(int)}.
+ *
+ * The file is read through a 64 KB decoding buffer, not memory-mapped.
+ * Mapping was considered and rejected: fields still have to be decoded from
+ * UTF-8 and unescaped, so a field can't be a view of the mapped bytes, and
+ * Java cannot unmap a MappedByteBuffer on demand, which on Windows keeps
+ * the import file locked until the buffer is garbage collected. Import
+ * files are a few MB, and reading them this way is not the slow part.
+ *
+ * <pre>
+ * try (CsvReader csv = new CsvReader(path)) {
+ *     while (csv.next()) {
+ *         String entry = csv.get(0);
+ *     }
+ * }
+ * </pre>
+ */
+public class CsvReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final Reader reader;
+
+    // Decoded input
+    private final char[] buf = new char[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    // Current record: field text is packed into rec, bounded by starts/ends
+    private char[] rec = new char[256];
+    private int recLength;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int fieldCount;
+
+    private int line = 1;          // Physical line the parser is on
+    private int recordLine;        // Physical line the current record started on
+    private boolean started;
+
+    public CsvReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.reader = Channels.newReader(channel, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Advance to the next record. Returns false at end of file.
+     */
+    public boolean next() throws IOException {
+        if (!started) {
+            started = true;
+            if (peek() == '\uFEFF') pos++; // Skip UTF-8 BOM
+        }
+
+        recLength = 0;
+        fieldCount = 0;
+        recordLine = line;
+
+        if (peek() < 0) {
+            return false;
+        }
+
+        int fieldStart = 0;
+        boolean quoted = false;
+
+        while (true) {
+            int c = read();
+
+            if (c < 0) {
+                endField(fieldStart);
+                return true;
+            }
+
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        pos++;
+                        append('"'); // Escaped quote
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    append((char) c);
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '"' -> {
+                    if (recLength == fieldStart) {
+                        quoted = true;
+                    } else {
+                        append('"'); // Stray quote inside an unquoted field, keep it
+                    }
+                }
+                case ',' -> {
+                    endField(fieldStart);
+                    fieldStart = recLength;
+                }
+                case '\r' -> {
+                    if (peek() == '\n') pos++;
+                    line++;
+                    endField(fieldStart);
+                    return true;
+                }
+                case '\n' -> {
+                    line++;
+                    endField(fieldStart);
+                    return true;
+                }
+                default -> append((char) c);
+            }
+        }
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Line number (1-based) on which the current record starts
+     */
+    public int lineNumber() {
+        return recordLine;
+    }
+
+    /**
+     * Field text with surrounding whitespace removed, "" if the field is missing
+     */
+    public String get(int index) {
+        if (index >= fieldCount) return "";
+
+        int s = starts[index];
+        int e = ends[index];
+        while (s < e && rec[s] <= ' ') s++;
+        while (e > s && rec[e - 1] <= ' ') e--;
+
+        return s == e ? "" : new String(rec, s, e - s);
+    }
+
+    /**
+     * True if the field is missing or only whitespace, without creating a String
+     */
+    public boolean isBlank(int index) {
+        if (index >= fieldCount) return true;
+
+        for (int i = starts[index]; i < ends[index]; i++) {
+            if (rec[i] > ' ') return false;
+        }
+        return true;
+    }
+
+    /**
+     * How far through the file the reader is, 0.0 to 1.0
+     */
+    public double progress() throws IOException {
+        return size == 0 ? 1.0 : Math.min(1.0, (double) channel.position() / size);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // ===== TOKENIZER HELPERS =====
+
+    private int peek() throws IOException {
+        if (pos >= limit && !fill()) return -1;
+        return buf[pos];
+    }
+
+    private int read() throws IOException {
+        if (pos >= limit && !fill()) return -1;
+        return buf[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) return false;
+
+        int n = reader.read(buf, 0, buf.length);
+        if (n <= 0) {
+            eof = true;
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    private void append(char c) {
+        if (recLength == rec.length) {
+            rec = Arrays.copyOf(rec, rec.length * 2);
+        }
+        rec[recLength++] = c;
+    }
+
+    private void endField(int fieldStart) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+        }
+        starts[fieldCount] = fieldStart;
+        ends[fieldCount] = recLength;
+        fieldCount++;
+    }
+}
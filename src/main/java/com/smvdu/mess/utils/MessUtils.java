@@ -1,6 +1,5 @@
 package com.smvdu.mess.utils;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -9,6 +8,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.service.MessStatsCache;
 
 public class MessUtils {
     
@@ -19,19 +20,18 @@ public class MessUtils {
      * Falls back to calendar month length if not set
      */
     public static int getOperatingDays(int messId, int month, int year) {
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement ps = conn.prepareStatement(
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(
                 "SELECT operating_days FROM mess_operation_days " +
                 "WHERE mess_id = ? AND month = ? AND year = ?"
             );
             ps.setInt(1, messId);
             ps.setInt(2, month);
             ps.setInt(3, year);
-            ResultSet rs = ps.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt("operating_days");
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("operating_days");
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -45,9 +45,8 @@ public class MessUtils {
      * Save operating days for a specific mess, month, and year
      */
     public static boolean saveOperatingDays(int messId, int month, int year, int operatingDays) {
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement ps = conn.prepareStatement(
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            PreparedStatement ps = conn.prepare(
                 "INSERT OR REPLACE INTO mess_operation_days " +
                 "(mess_id, month, year, operating_days) " +
                 "VALUES (?, ?, ?, ?)"
@@ -58,6 +57,7 @@ public class MessUtils {
             ps.setInt(4, operatingDays);
             
             int result = ps.executeUpdate();
+            MessStatsCache.invalidate(messId, month, year);
             return result > 0;
             
         } catch (SQLException e) {
@@ -70,16 +70,15 @@ public class MessUtils {
      * Get mess ID for a given hostel ID
      */
     public static int getMessIdForHostel(int hostelId) {
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement ps = conn.prepareStatement(
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(
                 "SELECT mess_id FROM hostels WHERE id = ?"
             );
             ps.setInt(1, hostelId);
-            ResultSet rs = ps.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt("mess_id");
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("mess_id");
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -95,16 +94,15 @@ public class MessUtils {
     public static List<Integer> getHostelIdsForMess(int messId) {
         List<Integer> hostelIds = new ArrayList<>();
         
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement ps = conn.prepareStatement(
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(
                 "SELECT id FROM hostels WHERE mess_id = ?"
             );
             ps.setInt(1, messId);
-            ResultSet rs = ps.executeQuery();
-            
-            while (rs.next()) {
-                hostelIds.add(rs.getInt("id"));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    hostelIds.add(rs.getInt("id"));
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -134,16 +132,15 @@ public class MessUtils {
      * Get setting value by key
      */
     public static double getSetting(String key, double defaultValue) {
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement ps = conn.prepareStatement(
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(
                 "SELECT value FROM settings WHERE key = ?"
             );
             ps.setString(1, key);
-            ResultSet rs = ps.executeQuery();
-            
-            if (rs.next()) {
-                return Double.parseDouble(rs.getString("value"));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return Double.parseDouble(rs.getString("value"));
+                }
             }
         } catch (SQLException | NumberFormatException e) {
             e.printStackTrace();
@@ -156,15 +153,15 @@ public class MessUtils {
      * Update setting value
      */
     public static boolean updateSetting(String key, String value) {
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement ps = conn.prepareStatement(
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            PreparedStatement ps = conn.prepare(
                 "INSERT OR REPLACE INTO settings (key, value) VALUES (?, ?)"
             );
             ps.setString(1, key);
             ps.setString(2, value);
             
             int result = ps.executeUpdate();
+            MessStatsCache.clearAll(); // Rates apply to every mess
             return result > 0;
             
         } catch (SQLException e) {
@@ -179,9 +176,7 @@ public class MessUtils {
     public static int getTotalAbsentDays(List<Integer> hostelIds, int month, int year) {
         if (hostelIds.isEmpty()) return 0;
         
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            
+        try (PooledConnection conn = DatabaseConnection.read()) {
             String query = "SELECT COALESCE(SUM(sa.absent_days), 0) as total_absent_days " +
                           "FROM students s " +
                           "LEFT JOIN student_attendance sa ON s.id = sa.student_id " +
@@ -189,13 +184,13 @@ public class MessUtils {
                           "WHERE s.hostel_id IN (" + hostelIdsToString(hostelIds) + ") " +
                           "AND s.is_active = 1";
             
-            PreparedStatement ps = conn.prepareStatement(query);
+            PreparedStatement ps = conn.prepare(query);
             ps.setInt(1, month);
             ps.setInt(2, year);
-            ResultSet rs = ps.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt("total_absent_days");
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("total_absent_days");
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -210,17 +205,15 @@ public class MessUtils {
     public static int getActiveStudentCount(List<Integer> hostelIds) {
         if (hostelIds.isEmpty()) return 0;
         
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            
+        try (PooledConnection conn = DatabaseConnection.read()) {
             String query = "SELECT COUNT(*) FROM students " +
                           "WHERE hostel_id IN (" + hostelIdsToString(hostelIds) + ") " +
                           "AND is_active = 1";
             
-            ResultSet rs = conn.createStatement().executeQuery(query);
-            
-            if (rs.next()) {
-                return rs.getInt(1);
+            try (ResultSet rs = conn.prepare(query).executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -235,16 +228,14 @@ public class MessUtils {
     public static int getTotalStudentCount(List<Integer> hostelIds) {
         if (hostelIds.isEmpty()) return 0;
         
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            
+        try (PooledConnection conn = DatabaseConnection.read()) {
             String query = "SELECT COUNT(*) FROM students " +
                           "WHERE hostel_id IN (" + hostelIdsToString(hostelIds) + ")";
             
-            ResultSet rs = conn.createStatement().executeQuery(query);
-            
-            if (rs.next()) {
-                return rs.getInt(1);
+            try (ResultSet rs = conn.prepare(query).executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -278,9 +269,8 @@ public class MessUtils {
     public static boolean saveBillConfig(int messId, int month, int year, 
                                          LocalDate startDate, LocalDate endDate, 
                                          int operatingDays, double fineAmount) {
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement ps = conn.prepareStatement(
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            PreparedStatement ps = conn.prepare(
                 "INSERT OR REPLACE INTO bill_configurations " +
                 "(mess_id, month, year, start_date, end_date, operating_days, fine_amount) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?)"
@@ -294,6 +284,7 @@ public class MessUtils {
             ps.setDouble(7, fineAmount);
             
             int result = ps.executeUpdate();
+            MessStatsCache.invalidate(messId, month, year);
             
             // Also update operating days in the separate table for backward compatibility
             saveOperatingDays(messId, month, year, operatingDays);
@@ -311,9 +302,8 @@ public class MessUtils {
      * Returns null if not configured yet
      */
     public static BillConfig getBillConfig(int messId, int month, int year) {
-        try {
-            Connection conn = DatabaseConnection.getConnection();
-            PreparedStatement ps = conn.prepareStatement(
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(
                 "SELECT start_date, end_date, operating_days, fine_amount " +
                 "FROM bill_configurations " +
                 "WHERE mess_id = ? AND month = ? AND year = ?"
@@ -321,15 +311,15 @@ public class MessUtils {
             ps.setInt(1, messId);
             ps.setInt(2, month);
             ps.setInt(3, year);
-            ResultSet rs = ps.executeQuery();
-            
-            if (rs.next()) {
-                LocalDate startDate = LocalDate.parse(rs.getString("start_date"));
-                LocalDate endDate = LocalDate.parse(rs.getString("end_date"));
-                int operatingDays = rs.getInt("operating_days");
-                double fineAmount = rs.getDouble("fine_amount");
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    LocalDate startDate = LocalDate.parse(rs.getString("start_date"));
+                    LocalDate endDate = LocalDate.parse(rs.getString("end_date"));
+                    int operatingDays = rs.getInt("operating_days");
+                    double fineAmount = rs.getDouble("fine_amount");
                 
-                return new BillConfig(startDate, endDate, operatingDays, fineAmount);
+                    return new BillConfig(startDate, endDate, operatingDays, fineAmount);
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
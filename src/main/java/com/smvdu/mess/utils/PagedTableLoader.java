@@ -0,0 +1,181 @@
+package com.smvdu.mess.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+/**
+ * Fills a TableView's backing list one keyset page at a time.
+ *
+ * The first page is fetched by {@link #reset}; further pages are fetched in
+ * the background when the table is scrolled near the bottom. Callers that
+ * need every row (filters, reports) use {@link #loadAll}.
+ */
+public class PagedTableLoader<T> {
+
+    private static final double PREFETCH_AT = 0.85; // Fraction of the scroll range
+
+    /**
+     * Fetches up to limit rows after the given key ("" for the first page);
+     * limit 0 means all remaining rows. Called on a background thread.
+     */
+    public interface PageFetcher<T> {
+        List<T> fetch(String afterKey, int limit) throws Exception;
+    }
+
+    private final TableView<T> table;
+    private final ObservableList<T> rows;
+    private final Function<T, String> keyOf;
+    private final int pageSize;
+
+    private PageFetcher<T> fetcher;
+    private Consumer<Throwable> onError = e -> {};
+    private Runnable onPageLoaded = () -> {};
+
+    private String lastKey = "";
+    private boolean loading;
+    private boolean exhausted = true;
+    private int generation;
+
+    private final List<Runnable> waitingForAll = new ArrayList<>();
+
+    public PagedTableLoader(TableView<T> table, ObservableList<T> rows, Function<T, String> keyOf, int pageSize) {
+        this.table = table;
+        this.rows = rows;
+        this.keyOf = keyOf;
+        this.pageSize = pageSize;
+
+        // The scroll bar only exists once the table has a skin
+        table.skinProperty().addListener((obs, o, skin) -> {
+            if (skin != null) hookScrollBar(true);
+        });
+        if (table.getSkin() != null) hookScrollBar(true);
+    }
+
+    public void setOnError(Consumer<Throwable> onError) {
+        this.onError = onError;
+    }
+
+    /**
+     * Runs on the FX thread after every page is appended
+     */
+    public void setOnPageLoaded(Runnable onPageLoaded) {
+        this.onPageLoaded = onPageLoaded;
+    }
+
+    /**
+     * Drop loaded rows and start again from the first page
+     */
+    public void reset(PageFetcher<T> fetcher) {
+        this.fetcher = fetcher;
+        generation++;
+        rows.clear();
+        lastKey = "";
+        loading = false;
+        exhausted = false;
+        waitingForAll.clear();
+        fetch(pageSize);
+    }
+
+    /**
+     * Start from a first page that was already fetched (e.g. with other startup data)
+     */
+    public void reset(PageFetcher<T> fetcher, List<T> firstPage) {
+        this.fetcher = fetcher;
+        generation++;
+        loading = false;
+        waitingForAll.clear();
+        rows.setAll(firstPage);
+        lastKey = firstPage.isEmpty() ? "" : keyOf.apply(firstPage.get(firstPage.size() - 1));
+        exhausted = firstPage.size() < pageSize;
+        onPageLoaded.run();
+    }
+
+    public boolean isFullyLoaded() {
+        return exhausted;
+    }
+
+    /**
+     * Make sure every row is loaded, then run the callback on the FX thread
+     */
+    public void loadAll(Runnable then) {
+        if (exhausted) {
+            then.run();
+            return;
+        }
+        waitingForAll.add(then);
+        if (!loading) {
+            fetch(0);
+        }
+    }
+
+    private void loadNextPage() {
+        if (!loading && !exhausted) {
+            fetch(pageSize);
+        }
+    }
+
+    private void fetch(int limit) {
+        if (fetcher == null) return;
+
+        loading = true;
+        int fetchGeneration = generation;
+        String after = lastKey;
+        PageFetcher<T> pageFetcher = fetcher;
+
+        BackgroundLoader.run(
+            () -> pageFetcher.fetch(after, limit),
+            page -> {
+                if (fetchGeneration != generation) return; // Reset while loading
+
+                loading = false;
+                rows.addAll(page);
+                if (!page.isEmpty()) {
+                    lastKey = keyOf.apply(page.get(page.size() - 1));
+                }
+                exhausted = limit <= 0 || page.size() < limit;
+                onPageLoaded.run();
+
+                if (!waitingForAll.isEmpty()) {
+                    if (exhausted) {
+                        List<Runnable> callbacks = new ArrayList<>(waitingForAll);
+                        waitingForAll.clear();
+                        callbacks.forEach(Runnable::run);
+                    } else {
+                        fetch(0);
+                    }
+                }
+            },
+            e -> {
+                if (fetchGeneration != generation) return;
+                loading = false;
+                waitingForAll.clear();
+                onError.accept(e);
+            }
+        );
+    }
+
+    private void hookScrollBar(boolean retry) {
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                bar.valueProperty().addListener((obs, o, value) -> {
+                    if (value.doubleValue() >= bar.getMax() * PREFETCH_AT) {
+                        loadNextPage();
+                    }
+                });
+                return;
+            }
+        }
+        if (retry) {
+            Platform.runLater(() -> hookScrollBar(false)); // Skin children may not exist yet
+        }
+    }
+}
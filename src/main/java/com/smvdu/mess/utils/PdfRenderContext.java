@@ -0,0 +1,102 @@
+package com.smvdu.mess.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.colors.DeviceGray;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.properties.TextAlignment;
+
+/**
+ * Fonts, colors and cell styles shared by the PDF generators.
+ *
+ * Font programs, colors and styles are built once and only read afterwards,
+ * so any number of documents can use them at the same time. A PdfFont
+ * belongs to the document it is first written to, so every document gets
+ * its own context with its own fonts: {@code PdfRenderContext.create()}.
+ *
+ * Apply the styles with {@code cell.addStyle(...)}; never modify them.
+ */
+public final class PdfRenderContext {
+
+    private static final FontProgram HELVETICA = loadFont(StandardFonts.HELVETICA);
+    private static final FontProgram HELVETICA_BOLD = loadFont(StandardFonts.HELVETICA_BOLD);
+
+    // ===== COLORS =====
+    public static final Color HEADER_GRAY = new DeviceGray(0.8f);
+    public static final Color TOTAL_GRAY = new DeviceGray(0.9f);
+    public static final Color HIGHLIGHT_GRAY = new DeviceGray(0.95f);
+    public static final Color MUTED_GRAY = new DeviceGray(0.5f);
+    public static final Color ABSENT_RED = new DeviceRgb(200, 0, 0);
+    public static final Color PRESENT_GREEN = new DeviceRgb(0, 150, 0);
+
+    // ===== CELL STYLES =====
+
+    /** Borderless label/value cell of an info block */
+    public static final Style INFO_CELL = new Style()
+            .setBorder(Border.NO_BORDER)
+            .setFontSize(10)
+            .setPadding(3);
+
+    /** Gray table header cell */
+    public static final Style HEADER_CELL = new Style()
+            .setBackgroundColor(HEADER_GRAY)
+            .setTextAlignment(TextAlignment.CENTER)
+            .setFontSize(10)
+            .setPadding(6);
+
+    /** Centered data cell of a student table */
+    public static final Style DATA_CELL = new Style()
+            .setTextAlignment(TextAlignment.CENTER)
+            .setFontSize(9)
+            .setPadding(6);
+
+    /** Bill detail row cell */
+    public static final Style DETAIL_CELL = new Style()
+            .setFontSize(10)
+            .setPadding(6);
+
+    /** Bill financial row cell */
+    public static final Style FINANCIAL_CELL = new Style()
+            .setFontSize(11)
+            .setPadding(8);
+
+    private final PdfFont bold;
+    private final PdfFont regular;
+
+    private PdfRenderContext() {
+        this.bold = PdfFontFactory.createFont(HELVETICA_BOLD);
+        this.regular = PdfFontFactory.createFont(HELVETICA);
+    }
+
+    /**
+     * Fresh fonts for one document, over the shared font programs
+     */
+    public static PdfRenderContext create() {
+        return new PdfRenderContext();
+    }
+
+    public PdfFont bold() {
+        return bold;
+    }
+
+    public PdfFont regular() {
+        return regular;
+    }
+
+    private static FontProgram loadFont(String name) {
+        try {
+            return FontProgramFactory.createFont(name);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load font " + name, e);
+        }
+    }
+}
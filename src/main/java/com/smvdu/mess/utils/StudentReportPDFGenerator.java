@@ -4,11 +4,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
-import com.itextpdf.io.font.constants.StandardFonts;
-import com.itextpdf.kernel.colors.DeviceGray;
-import com.itextpdf.kernel.colors.DeviceRgb;
 import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.kernel.pdf.canvas.draw.SolidLine;
@@ -19,16 +15,19 @@ import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
-import com.smvdu.mess.models.Student;
+import com.smvdu.mess.models.StudentRecord;
 
 public class StudentReportPDFGenerator {
     
+    // Rows laid out and written to the file per flush of the student table
+    private static final int FLUSH_ROWS = 100;
+    
     public static void generateStudentReport(
             String filePath,
             String universityName,
             String messName,
             String reportType,
-            List<Student> students,
+            List<StudentRecord> students,
             int operatingDays,
             LocalDate reportDate) throws Exception {
         
@@ -36,8 +35,9 @@ public class StudentReportPDFGenerator {
         PdfDocument pdfDoc = new PdfDocument(writer);
         Document document = new Document(pdfDoc);
         
-        PdfFont boldFont = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
-        PdfFont regularFont = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        PdfRenderContext ctx = PdfRenderContext.create();
+        PdfFont boldFont = ctx.bold();
+        PdfFont regularFont = ctx.regular();
         
         // ===== HEADER =====
         Paragraph universityHeader = new Paragraph(universityName)
@@ -92,11 +92,14 @@ public class StudentReportPDFGenerator {
         document.add(new LineSeparator(new SolidLine()));
         
         // ===== STUDENT TABLE =====
+        // Large table: rows are flushed to the page as they are added, and
+        // the header row repeats on every page
         Table studentTable;
+        int rows = 0;
         
         if (reportType.equals("ALL")) {
             // All students: Entry Number, Name, Room, Mess Days, Absent Days
-            studentTable = new Table(new float[]{0.2f, 0.3f, 0.15f, 0.175f, 0.175f});
+            studentTable = new Table(new float[]{0.2f, 0.3f, 0.15f, 0.175f, 0.175f}, true);
             
             // Header row
             addHeaderCell(studentTable, "Entry Number", boldFont);
@@ -104,26 +107,30 @@ public class StudentReportPDFGenerator {
             addHeaderCell(studentTable, "Room", boldFont);
             addHeaderCell(studentTable, "Mess Days", boldFont);
             addHeaderCell(studentTable, "Absent Days", boldFont);
+            startTable(document, studentTable);
             
             // Data rows
-            for (Student student : students) {
+            for (StudentRecord student : students) {
                 addDataCell(studentTable, student.getEntryNumber(), regularFont);
                 addDataCell(studentTable, student.getName(), regularFont);
                 addDataCell(studentTable, student.getRoomNumber(), regularFont);
                 addDataCell(studentTable, String.valueOf(student.getMessDays()), regularFont);
                 addDataCell(studentTable, String.valueOf(student.getAbsentDays()), regularFont);
+                
+                if (++rows % FLUSH_ROWS == 0) studentTable.flush();
             }
             
         } else if (reportType.equals("ABSENT")) {
             // Absent students: Entry Number, Name, Room, Absent Days
-            studentTable = new Table(new float[]{0.25f, 0.35f, 0.2f, 0.2f});
+            studentTable = new Table(new float[]{0.25f, 0.35f, 0.2f, 0.2f}, true);
             
             addHeaderCell(studentTable, "Entry Number", boldFont);
             addHeaderCell(studentTable, "Name", boldFont);
             addHeaderCell(studentTable, "Room", boldFont);
             addHeaderCell(studentTable, "Absent Days", boldFont);
+            startTable(document, studentTable);
             
-            for (Student student : students) {
+            for (StudentRecord student : students) {
                 addDataCell(studentTable, student.getEntryNumber(), regularFont);
                 addDataCell(studentTable, student.getName(), regularFont);
                 addDataCell(studentTable, student.getRoomNumber(), regularFont);
@@ -133,22 +140,24 @@ public class StudentReportPDFGenerator {
                         .add(new Paragraph(String.valueOf(student.getAbsentDays()))
                                 .setFont(boldFont)
                                 .setFontSize(10)
-                                .setFontColor(new DeviceRgb(200, 0, 0)))
-                        .setTextAlignment(TextAlignment.CENTER)
-                        .setPadding(6);
+                                .setFontColor(PdfRenderContext.ABSENT_RED))
+                        .addStyle(PdfRenderContext.DATA_CELL);
                 studentTable.addCell(absentCell);
+                
+                if (++rows % FLUSH_ROWS == 0) studentTable.flush();
             }
             
         } else { // PRESENT
             // Present students: Entry Number, Name, Room, Mess Days
-            studentTable = new Table(new float[]{0.25f, 0.35f, 0.2f, 0.2f});
+            studentTable = new Table(new float[]{0.25f, 0.35f, 0.2f, 0.2f}, true);
             
             addHeaderCell(studentTable, "Entry Number", boldFont);
             addHeaderCell(studentTable, "Name", boldFont);
             addHeaderCell(studentTable, "Room", boldFont);
             addHeaderCell(studentTable, "Mess Days", boldFont);
+            startTable(document, studentTable);
             
-            for (Student student : students) {
+            for (StudentRecord student : students) {
                 addDataCell(studentTable, student.getEntryNumber(), regularFont);
                 addDataCell(studentTable, student.getName(), regularFont);
                 addDataCell(studentTable, student.getRoomNumber(), regularFont);
@@ -158,16 +167,16 @@ public class StudentReportPDFGenerator {
                         .add(new Paragraph(String.valueOf(student.getMessDays()))
                                 .setFont(boldFont)
                                 .setFontSize(10)
-                                .setFontColor(new DeviceRgb(0, 150, 0)))
-                        .setTextAlignment(TextAlignment.CENTER)
-                        .setPadding(6);
+                                .setFontColor(PdfRenderContext.PRESENT_GREEN))
+                        .addStyle(PdfRenderContext.DATA_CELL);
                 studentTable.addCell(messCell);
+                
+                if (++rows % FLUSH_ROWS == 0) studentTable.flush();
             }
         }
         
-        studentTable.setWidth(UnitValue.createPercentValue(100));
-        studentTable.setMarginTop(15);
-        document.add(studentTable);
+        // Lay out the remaining rows and the table's bottom border
+        studentTable.complete();
         
         // ===== FOOTER =====
         document.add(new Paragraph("\n"));
@@ -186,7 +195,7 @@ public class StudentReportPDFGenerator {
                 .setFontSize(7)
                 .setTextAlignment(TextAlignment.CENTER)
                 .setMarginTop(5)
-                .setFontColor(new DeviceGray(0.5f));
+                .setFontColor(PdfRenderContext.MUTED_GRAY);
         document.add(disclaimer);
         
         document.close();
@@ -194,32 +203,34 @@ public class StudentReportPDFGenerator {
     
     private static void addInfoRow(Table table, String label, String value, PdfFont boldFont, PdfFont regularFont) {
         Cell labelCell = new Cell()
-                .add(new Paragraph(label).setFont(boldFont).setFontSize(10))
-                .setBorder(null)
-                .setPadding(3);
+                .add(new Paragraph(label).setFont(boldFont))
+                .addStyle(PdfRenderContext.INFO_CELL);
         table.addCell(labelCell);
         
         Cell valueCell = new Cell()
-                .add(new Paragraph(value).setFont(regularFont).setFontSize(10))
-                .setBorder(null)
-                .setPadding(3);
+                .add(new Paragraph(value).setFont(regularFont))
+                .addStyle(PdfRenderContext.INFO_CELL);
         table.addCell(valueCell);
     }
     
+    // Large tables go into the document before their rows are added
+    private static void startTable(Document document, Table table) {
+        table.setWidth(UnitValue.createPercentValue(100));
+        table.setMarginTop(15);
+        document.add(table);
+    }
+    
     private static void addHeaderCell(Table table, String text, PdfFont font) {
         Cell cell = new Cell()
-                .add(new Paragraph(text).setFont(font).setFontSize(10))
-                .setBackgroundColor(new DeviceGray(0.8f))
-                .setTextAlignment(TextAlignment.CENTER)
-                .setPadding(6);
+                .add(new Paragraph(text).setFont(font))
+                .addStyle(PdfRenderContext.HEADER_CELL);
         table.addHeaderCell(cell);
     }
     
     private static void addDataCell(Table table, String text, PdfFont font) {
         Cell cell = new Cell()
-                .add(new Paragraph(text != null ? text : "").setFont(font).setFontSize(9))
-                .setTextAlignment(TextAlignment.CENTER)
-                .setPadding(6);
+                .add(new Paragraph(text != null ? text : "").setFont(font))
+                .addStyle(PdfRenderContext.DATA_CELL);
         table.addCell(cell);
     }
 }
\ No newline at end of file
@@ -0,0 +1,171 @@
+package com.smvdu.mess.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import com.smvdu.mess.models.Student;
+
+/**
+ * Precomputed search keys for the students table.
+ *
+ * Built once per load: lowercase name and entry number, the batch year as
+ * an int, and a trigram index over both keys. A query of three or more
+ * characters only checks students that contain all of its trigrams; shorter
+ * queries scan the precomputed keys. {@link #predicate} returns a predicate
+ * for a FilteredList that is a bit lookup per student.
+ */
+public class StudentSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final int[] NO_POSTINGS = new int[0];
+
+    private final List<Student> students;
+    private final String[] keys;       // "name\u0000entry", lowercased
+    private final int[] batchYears;    // 0 if the entry number has no batch prefix
+    private final IdentityHashMap<Student, Integer> positions;
+    private final Map<String, int[]> trigrams;
+
+    public StudentSearchIndex(List<Student> students) {
+        int n = students.size();
+        this.students = new ArrayList<>(students);
+        this.keys = new String[n];
+        this.batchYears = new int[n];
+        this.positions = new IdentityHashMap<>(n);
+
+        Map<String, IntList> postings = new HashMap<>();
+
+        for (int i = 0; i < n; i++) {
+            Student s = this.students.get(i);
+            String name = s.getName() == null ? "" : s.getName().toLowerCase(Locale.ROOT);
+            String entry = s.getEntryNumber() == null ? "" : s.getEntryNumber().toLowerCase(Locale.ROOT);
+
+            keys[i] = name + '\u0000' + entry;
+            batchYears[i] = batchYearOf(s.getEntryNumber());
+            positions.put(s, i);
+
+            addGrams(postings, name, i);
+            addGrams(postings, entry, i);
+        }
+
+        this.trigrams = new HashMap<>(postings.size() * 2);
+        for (Map.Entry<String, IntList> e : postings.entrySet()) {
+            trigrams.put(e.getKey(), e.getValue().toArray());
+        }
+    }
+
+    /**
+     * Batch year from an entry number ("23BCS079" -> 2023), or 0 if there is none
+     */
+    public static int batchYearOf(String entryNumber) {
+        if (entryNumber == null || entryNumber.length() < 2) return 0;
+
+        char a = entryNumber.charAt(0);
+        char b = entryNumber.charAt(1);
+        if (a < '0' || a > '9' || b < '0' || b > '9') return 0;
+
+        return 2000 + (a - '0') * 10 + (b - '0');
+    }
+
+    public int batchYear(Student student) {
+        Integer i = positions.get(student);
+        return i == null ? batchYearOf(student.getEntryNumber()) : batchYears[i];
+    }
+
+    /**
+     * Distinct batch years, newest first
+     */
+    public List<Integer> batchYears() {
+        TreeSet<Integer> years = new TreeSet<>((x, y) -> Integer.compare(y, x));
+        for (int year : batchYears) {
+            if (year != 0) years.add(year);
+        }
+        return new ArrayList<>(years);
+    }
+
+    /**
+     * Predicate matching students whose name or entry number contains the
+     * query (case-insensitive) and, if batchYear is non-zero, in that batch
+     */
+    public Predicate<Student> predicate(String query, int batchYear) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+
+        if (q.isEmpty() && batchYear == 0) {
+            return s -> true;
+        }
+
+        BitSet matches = search(q);
+        if (batchYear != 0) {
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                if (batchYears[i] != batchYear) matches.clear(i);
+            }
+        }
+
+        return s -> {
+            Integer i = positions.get(s);
+            return i != null && matches.get(i);
+        };
+    }
+
+    private BitSet search(String q) {
+        BitSet result = new BitSet(keys.length);
+
+        if (q.isEmpty()) {
+            result.set(0, keys.length);
+            return result;
+        }
+
+        if (q.length() < GRAM) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].contains(q)) result.set(i);
+            }
+            return result;
+        }
+
+        // Start from the rarest trigram, then confirm each candidate
+        int[] candidates = null;
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            int[] list = trigrams.getOrDefault(q.substring(i, i + GRAM), NO_POSTINGS);
+            if (candidates == null || list.length < candidates.length) {
+                candidates = list;
+            }
+        }
+
+        for (int i : candidates) {
+            if (keys[i].contains(q)) result.set(i);
+        }
+        return result;
+    }
+
+    private static void addGrams(Map<String, IntList> postings, String key, int position) {
+        for (int i = 0; i + GRAM <= key.length(); i++) {
+            IntList list = postings.computeIfAbsent(key.substring(i, i + GRAM), k -> new IntList());
+            list.addIfNotLast(position);
+        }
+    }
+
+    /**
+     * Growable int list; positions are added in increasing order
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void addIfNotLast(int value) {
+            if (size > 0 && values[size - 1] == value) return; // Same gram twice in one student
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.smvdu.mess.utils;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.AreaReference;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+/**
+ * Reads the first sheet of an .xlsx file one row at a time with POI's SAX
+ * event API, so memory use does not grow with the size of the sheet.
+ * Only the current row and the shared strings table are held in memory.
+ */
+public class XlsxStreamReader {
+
+    /**
+     * Receives each row in sheet order
+     */
+    public interface RowHandler {
+        /**
+         * @param rowNumber     0-based row index as shown by Excel minus one
+         * @param cells         formatted cell text, "" for empty cells
+         * @param lastRowNumber last row index from the sheet's dimension, or -1 if unknown
+         */
+        void handleRow(int rowNumber, List<String> cells, int lastRowNumber) throws Exception;
+    }
+
+    /**
+     * Stream every row of the first sheet into the handler
+     */
+    public static void read(File file, RowHandler handler) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+
+            try (InputStream sheet = sheets.next()) {
+                RowCollector collector = new RowCollector(handler);
+                DimensionFilter filter = new DimensionFilter(collector);
+
+                filter.setParent(XMLHelper.newXMLReader());
+                filter.setContentHandler(new XSSFSheetXMLHandler(
+                        styles, null, strings, collector, new DataFormatter(), false));
+
+                try {
+                    filter.parse(new InputSource(sheet));
+                } catch (HandlerException e) {
+                    throw e.cause;
+                }
+            }
+        }
+    }
+
+    /**
+     * Cell text at a column, "" past the end of the row
+     */
+    public static String cell(List<String> cells, int col) {
+        return col < cells.size() ? cells.get(col).trim() : "";
+    }
+
+    // ===== SAX PLUMBING =====
+
+    /**
+     * Picks up &lt;dimension ref="A1:E5001"&gt; before rows start, for progress
+     */
+    private static class DimensionFilter extends XMLFilterImpl {
+        private final RowCollector collector;
+
+        DimensionFilter(RowCollector collector) {
+            this.collector = collector;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+            if ("dimension".equals(localName)) {
+                String ref = atts.getValue("ref");
+                if (ref != null) {
+                    try {
+                        collector.lastRowNumber = new AreaReference(ref, null).getLastCell().getRow();
+                    } catch (IllegalArgumentException e) {
+                        // Malformed ref, progress stays unknown
+                    }
+                }
+            }
+            super.startElement(uri, localName, qName, atts);
+        }
+    }
+
+    private static class RowCollector implements SheetContentsHandler {
+        private final RowHandler handler;
+        private final List<String> cells = new ArrayList<>();
+        private int lastRowNumber = -1;
+
+        RowCollector(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int col = new CellReference(cellReference).getCol();
+            while (cells.size() < col) {
+                cells.add(""); // Gap left by empty cells
+            }
+            cells.add(formattedValue == null ? "" : formattedValue);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            try {
+                handler.handleRow(rowNum, cells, lastRowNumber);
+            } catch (Exception e) {
+                throw new HandlerException(e);
+            }
+        }
+    }
+
+    /**
+     * Carries a handler's checked exception out through the SAX parser
+     */
+    private static class HandlerException extends RuntimeException {
+        private final Exception cause;
+
+        HandlerException(Exception cause) {
+            super(cause);
+            this.cause = cause;
+        }
+    }
+}
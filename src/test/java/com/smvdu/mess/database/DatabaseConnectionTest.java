@@ -0,0 +1,152 @@
+package com.smvdu.mess.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class DatabaseConnectionTest {
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM settings WHERE key = ?";
+
+    private static final int READERS = 4;
+    private static final int READS_PER_READER = 2_000;
+    private static final int WRITES = 200;
+
+    @BeforeAll
+    static void migrate() {
+        TestDatabase.initialize();
+    }
+
+    @Test
+    void readersKeepRunningWhileWriterHoldsATransaction() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService writerThread = Executors.newSingleThreadExecutor();
+
+        Future<?> writer = writerThread.submit(() -> {
+            try (PooledConnection conn = DatabaseConnection.write()) {
+                Connection connection = conn.getConnection();
+                connection.setAutoCommit(false);
+                try {
+                    conn.prepare("INSERT INTO settings (key, value) VALUES ('test_uncommitted', '1')")
+                        .executeUpdate();
+                    written.countDown();
+                    release.await();
+                } finally {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            }
+            return null;
+        });
+
+        try {
+            written.await();
+            ExecutorService readerThread = Executors.newSingleThreadExecutor();
+            int seen = readerThread.submit(() -> count("test_uncommitted")).get(2, TimeUnit.SECONDS);
+            readerThread.shutdown();
+            assertEquals(0, seen); // WAL: readers see the last commit, without waiting
+        } finally {
+            release.countDown();
+            writer.get();
+            writerThread.shutdown();
+        }
+    }
+
+    @Test
+    void writerThreadReadsThroughTheWriter() throws SQLException {
+        try (PooledConnection writer = DatabaseConnection.write()) {
+            Connection connection = writer.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                writer.prepare("INSERT INTO settings (key, value) VALUES ('test_own_write', '1')").executeUpdate();
+
+                try (PooledConnection reader = DatabaseConnection.read()) {
+                    assertSame(writer, reader);
+                    assertEquals(1, count("test_own_write")); // Sees its own uncommitted row
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Test
+    void concurrentReadersAndWriterLoad() throws Exception {
+        // Baseline: every read queues on the one writer connection, like the old shared Connection
+        long serialMillis = runLoad(true);
+        long pooledMillis = runLoad(false);
+
+        int operations = READERS * READS_PER_READER + WRITES;
+        System.out.println(READERS + " readers + 1 writer, " + operations + " operations: pooled "
+                + pooledMillis + " ms, single connection " + serialMillis + " ms");
+    }
+
+    // Returns elapsed milliseconds; fails if any operation is lost or the run stalls
+    private static long runLoad(boolean readThroughWriter) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(READERS + 1);
+        List<Callable<Integer>> work = new ArrayList<>();
+
+        for (int r = 0; r < READERS; r++) {
+            work.add(() -> {
+                for (int i = 0; i < READS_PER_READER; i++) {
+                    if (readThroughWriter) {
+                        try (PooledConnection conn = DatabaseConnection.write()) {
+                            count("test_load");
+                        }
+                    } else {
+                        count("test_load");
+                    }
+                }
+                return READS_PER_READER;
+            });
+        }
+        work.add(() -> {
+            for (int i = 0; i < WRITES; i++) {
+                try (PooledConnection conn = DatabaseConnection.write()) {
+                    PreparedStatement ps = conn.prepare("INSERT OR REPLACE INTO settings (key, value) VALUES (?, ?)");
+                    ps.setString(1, "test_load");
+                    ps.setString(2, Integer.toString(i));
+                    ps.executeUpdate();
+                }
+            }
+            return WRITES;
+        });
+
+        long started = System.nanoTime();
+        int operations = 0;
+        for (Future<Integer> done : pool.invokeAll(work, 60, TimeUnit.SECONDS)) {
+            operations += done.get();
+        }
+        pool.shutdown();
+
+        assertEquals(READERS * READS_PER_READER + WRITES, operations);
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+
+    private static int count(String key) throws SQLException {
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(COUNT_SQL);
+            ps.setString(1, key);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.smvdu.mess.database;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A fresh database in a temporary home folder, shared by every test in the run.
+ * DatabaseConnection fixes its path from user.home when the class loads, so
+ * this must be called before anything else touches it.
+ */
+public final class TestDatabase {
+
+    private static boolean initialized;
+
+    private TestDatabase() {
+    }
+
+    public static synchronized void initialize() {
+        if (initialized) return;
+
+        try {
+            Path home = Files.createTempDirectory("mess-test-home");
+            System.setProperty("user.home", home.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        DatabaseConnection.initialize();
+
+        // migrateDatabase() runs before the default hostels exist, so a brand-new
+        // database only links them to their messes on the next start
+        try (PooledConnection conn = DatabaseConnection.write();
+             Statement stmt = conn.getConnection().createStatement()) {
+            stmt.executeUpdate(
+                "UPDATE hostels SET mess_id = CASE WHEN id <= 2 THEN 1 ELSE id - 1 END WHERE mess_id IS NULL");
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        initialized = true;
+    }
+}
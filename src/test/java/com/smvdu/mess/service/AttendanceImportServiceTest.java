@@ -0,0 +1,87 @@
+package com.smvdu.mess.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.database.TestDatabase;
+import com.smvdu.mess.service.AttendanceImportService.AttendanceRow;
+
+class AttendanceImportServiceTest {
+
+    private static final int MESS_ID = 1;   // Central Mess: hostels 1 and 2
+    private static final int MONTH = 3;
+    private static final int YEAR = 2025;
+
+    private static int activeId;
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        TestDatabase.initialize();
+        activeId = addStudent("11ATT001", 1);
+        addStudent("11ATT002", 0);
+    }
+
+    @Test
+    void matchesActiveStudentsIgnoringCase() throws SQLException {
+        List<AttendanceRow> rows = List.of(
+                new AttendanceRow(2, "11att001", "3"),
+                new AttendanceRow(3, "11ATT002", "2"));
+
+        AttendanceImportService.Result result =
+                AttendanceImportService.importAttendance(MESS_ID, MONTH, YEAR, rows, line -> { });
+
+        assertEquals(1, result.updated);
+        assertEquals(List.of("11ATT002"), result.unmatched); // Inactive
+        assertEquals(3, absentDays(activeId));
+    }
+
+    @Test
+    void queuedEditDoesNotOverwriteImport() throws SQLException {
+        AttendanceWriteQueue.submit(MESS_ID, activeId, MONTH, YEAR, 31, 24, 7);
+
+        List<String> log = new ArrayList<>();
+        AttendanceImportService.importAttendance(MESS_ID, MONTH, YEAR,
+                List.of(new AttendanceRow(2, "11ATT001", "5")), log::add);
+
+        assertEquals(0, AttendanceWriteQueue.pendingCount());
+        assertEquals(5, absentDays(activeId));
+    }
+
+    private static int addStudent(String entry, int active) throws SQLException {
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            PreparedStatement ps = conn.prepare(
+                "INSERT INTO students (entry_number, name, hostel_id, is_active) VALUES (?, 'Test', 1, ?)");
+            ps.setString(1, entry);
+            ps.setInt(2, active);
+            ps.executeUpdate();
+
+            try (ResultSet rs = conn.prepare("SELECT last_insert_rowid()").executeQuery()) {
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static int absentDays(int studentId) throws SQLException {
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(
+                "SELECT absent_days FROM student_attendance WHERE student_id = ? AND month = ? AND year = ?");
+            ps.setInt(1, studentId);
+            ps.setInt(2, MONTH);
+            ps.setInt(3, YEAR);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.getInt(1);
+            }
+        }
+    }
+}
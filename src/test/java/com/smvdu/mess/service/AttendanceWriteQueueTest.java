@@ -0,0 +1,64 @@
+package com.smvdu.mess.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.database.TestDatabase;
+
+class AttendanceWriteQueueTest {
+
+    private static final int REJECTED_ABSENT_DAYS = 29;
+
+    @BeforeAll
+    static void migrate() {
+        TestDatabase.initialize();
+    }
+
+    @AfterEach
+    void reset() throws SQLException {
+        writerSql("DROP TRIGGER IF EXISTS temp.reject_attendance");
+        AttendanceWriteQueue.flushNow();
+        AttendanceWriteQueue.setFailureListener(e -> { });
+    }
+
+    @Test
+    void reportsAfterMaxAttemptsAndKeepsTheEdits() throws SQLException {
+        // Only on the writer connection, for this test
+        writerSql("CREATE TEMP TRIGGER reject_attendance BEFORE INSERT ON student_attendance "
+                + "WHEN new.absent_days = " + REJECTED_ABSENT_DAYS + " BEGIN SELECT RAISE(ABORT, 'rejected'); END");
+
+        List<Exception> failures = new ArrayList<>();
+        AttendanceWriteQueue.setFailureListener(failures::add);
+        AttendanceWriteQueue.submit(1, 900001, 4, 2025, 30, 1, REJECTED_ABSENT_DAYS);
+
+        for (int attempt = 1; attempt < AttendanceWriteQueue.MAX_ATTEMPTS; attempt++) {
+            AttendanceWriteQueue.flushNow();
+        }
+        assertEquals(0, failures.size());
+
+        AttendanceWriteQueue.flushNow();
+        assertEquals(1, failures.size());
+        assertEquals(1, AttendanceWriteQueue.pendingCount());
+
+        writerSql("DROP TRIGGER temp.reject_attendance");
+        AttendanceWriteQueue.flushNow();
+        assertEquals(0, AttendanceWriteQueue.pendingCount());
+    }
+
+    private static void writerSql(String sql) throws SQLException {
+        try (PooledConnection conn = DatabaseConnection.write();
+             Statement stmt = conn.getConnection().createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.smvdu.mess.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.smvdu.mess.models.Bill;
+
+class BillCalculationServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 3, 1);
+    private static final LocalDate END = LocalDate.of(2025, 3, 31);
+
+    // 8 active of 10 students, 31 days, 20 absent days, Rs 120.50/day, 5% GST, Rs 100 fine
+    private static final MessStats STATS = new MessStats(2, 3, 2025, 1, 31, 10, 8, 20, 120.5, 5, 100);
+
+    @Test
+    void roundsSubtotalAndGstToPaiseBeforeAdding() {
+        Bill bill = BillCalculationService.calculate(STATS, "Vindhyachal Hostel Mess", "VHM", START, END);
+
+        assertEquals(248, bill.getTotalStudentDays());
+        assertEquals(228, bill.getTotalMessDays());
+        assertEquals(new BigDecimal("27474.00"), bill.getSubtotal());
+        assertEquals(new BigDecimal("1373.70"), bill.getGstAmount());
+        assertEquals(new BigDecimal("100.00"), bill.getFineAmount());
+        assertEquals(new BigDecimal("28947.70"), bill.getTotalAmount());
+        assertFalse(bill.isFinalized());
+    }
+
+    @Test
+    void relabelKeepsEveryFigure() {
+        Bill bill = BillCalculationService.calculate(STATS, "Vindhyachal Hostel Mess", "VHM", START, END);
+        Bill relabelled = BillCalculationService.relabel(bill, "Vindhyachal Hostel", "VH",
+                                                         START.plusDays(4), END);
+
+        assertEquals("VH", relabelled.getMessCode());
+        assertEquals(START.plusDays(4), relabelled.getPeriodStart());
+        assertEquals(bill.getTotalMessDays(), relabelled.getTotalMessDays());
+        assertEquals(bill.getPerDayRate(), relabelled.getPerDayRate());
+        assertEquals(bill.getTotalAmount(), relabelled.getTotalAmount());
+    }
+}
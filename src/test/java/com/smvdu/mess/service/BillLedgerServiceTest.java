@@ -0,0 +1,69 @@
+package com.smvdu.mess.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.database.TestDatabase;
+import com.smvdu.mess.models.Bill;
+
+class BillLedgerServiceTest {
+
+    private static final int MESS_ID = 4;   // Nilgiri Hostel Mess: hostel 5
+    private static final int HOSTEL_ID = 5;
+    private static final int MONTH = 11;
+    private static final int YEAR = 2025;
+
+    @BeforeAll
+    static void migrate() {
+        TestDatabase.initialize();
+    }
+
+    @Test
+    void readsBackTheStudentDaysItWasBilledOn() throws SQLException {
+        // 10 students for 30 days, but two joined mid-month: 290 student days, not 300
+        Bill bill = Bill.builder(MESS_ID, MONTH, YEAR)
+            .printedAs("Nilgiri Hostel Mess", "NHM", LocalDate.of(YEAR, MONTH, 1), LocalDate.of(YEAR, MONTH, 30))
+            .hostelCount(1)
+            .registeredStudents(10)
+            .totalStudents(10)
+            .operatingDays(30)
+            .totalStudentDays(290)
+            .totalAbsentDays(40)
+            .totalMessDays(250)
+            .perDayRate(new BigDecimal("120"))
+            .subtotal(new BigDecimal("30000.00"))
+            .gstPercent(new BigDecimal("5"))
+            .gstAmount(new BigDecimal("1500.00"))
+            .totalAmount(new BigDecimal("31500.00"))
+            .build();
+
+        Bill finalized = BillLedgerService.finalizeBill(bill, 0);
+
+        assertEquals(290, finalized.getTotalStudentDays());
+        assertEquals(250, finalized.getTotalMessDays());
+        assertEquals(bill.getTotalAmount(), finalized.getTotalAmount());
+        assertEquals(290, BillLedgerService.getFinalizedForMonth(MONTH, YEAR).get(MESS_ID).getTotalStudentDays());
+
+        // The NOT NULL hostel_id holds the mess's lowest hostel id
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare("SELECT hostel_id FROM bills WHERE id = ?");
+            ps.setInt(1, finalized.getId());
+            try (ResultSet rs = ps.executeQuery()) {
+                assertEquals(HOSTEL_ID, rs.getInt(1));
+            }
+        }
+
+        assertThrows(IllegalStateException.class, () -> BillLedgerService.finalizeBill(bill, 0));
+    }
+}
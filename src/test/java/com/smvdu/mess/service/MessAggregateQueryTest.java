@@ -0,0 +1,136 @@
+package com.smvdu.mess.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.database.TestDatabase;
+import com.smvdu.mess.utils.MessUtils;
+
+class MessAggregateQueryTest {
+
+    private static final int MESS_ID = 6;   // Vaishnavi Hostel Mess: hostel 7
+    private static final int HOSTEL_ID = 7;
+    private static final int MONTH = 8;
+    private static final int YEAR = 2025;
+
+    private static final int STUDENTS = 30;
+    private static final int INACTIVE_EVERY = 6;
+    private static final int ROUNDS = 500;
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        TestDatabase.initialize();
+
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement student = conn.prepare(
+                    "INSERT INTO students (entry_number, name, hostel_id, is_active) VALUES (?, 'Agg', ?, ?)");
+                PreparedStatement attendance = conn.prepare(AttendanceImportService.UPSERT_SQL);
+
+                for (int i = 0; i < STUDENTS; i++) {
+                    student.setString(1, String.format("25AGG%03d", i));
+                    student.setInt(2, HOSTEL_ID);
+                    student.setInt(3, i % INACTIVE_EVERY == 0 ? 0 : 1);
+                    student.executeUpdate();
+
+                    // Inactive students have attendance too; it must not count
+                    try (ResultSet rs = conn.prepare("SELECT last_insert_rowid()").executeQuery()) {
+                        attendance.setInt(1, rs.getInt(1));
+                    }
+                    attendance.setInt(2, MONTH);
+                    attendance.setInt(3, YEAR);
+                    attendance.setInt(4, 27);
+                    attendance.setInt(5, 27 - i % 4);
+                    attendance.setInt(6, i % 4);
+                    attendance.executeUpdate();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+
+        MessUtils.saveBillConfig(MESS_ID, MONTH, YEAR, LocalDate.of(YEAR, MONTH, 1),
+                                 LocalDate.of(YEAR, MONTH, 27), 27, 150);
+    }
+
+    @Test
+    void matchesThePerMetricCalls() throws SQLException {
+        MessStats stats = MessAggregateQuery.load(MESS_ID, MONTH, YEAR);
+        List<Integer> hostelIds = MessUtils.getHostelIdsForMess(MESS_ID);
+
+        assertEquals(hostelIds.size(), stats.getHostelCount());
+        assertEquals(MessUtils.getOperatingDays(MESS_ID, MONTH, YEAR), stats.getOperatingDays());
+        assertEquals(MessUtils.getTotalStudentCount(hostelIds), stats.getTotalStudents());
+        assertEquals(MessUtils.getActiveStudentCount(hostelIds), stats.getActiveStudents());
+        assertEquals(MessUtils.getTotalAbsentDays(hostelIds, MONTH, YEAR), stats.getTotalAbsentDays());
+        assertEquals(MessUtils.getSetting("per_day_rate", 120.0), stats.getPerDayRate());
+        assertEquals(MessUtils.getSetting("gst_percent", 5.0), stats.getGstPercent());
+        assertEquals(MessUtils.getFineAmount(MESS_ID, MONTH, YEAR), stats.getFineAmount());
+
+        assertEquals(STUDENTS, stats.getTotalStudents());
+        assertEquals(25, stats.getActiveStudents());
+    }
+
+    @Test
+    void allMessQueryAgreesWithSingleMess() throws SQLException {
+        MessStats single = MessAggregateQuery.load(MESS_ID, MONTH, YEAR);
+        MessStats fromAll = MessAggregateQuery.loadAllMessStats(MONTH, YEAR).stream()
+                .filter(m -> m.messId == MESS_ID)
+                .findFirst().orElseThrow().stats;
+
+        assertEquals(single.getActiveStudents(), fromAll.getActiveStudents());
+        assertEquals(single.getTotalAbsentDays(), fromAll.getTotalAbsentDays());
+        assertEquals(single.getEstimatedBill(), fromAll.getEstimatedBill());
+    }
+
+    @Test
+    void timeAgainstPerMetricCalls() throws SQLException {
+        // Warm the statement caches of both paths first
+        perMetric();
+        MessAggregateQuery.load(MESS_ID, MONTH, YEAR);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            perMetric();
+        }
+        long perMetricMicros = (System.nanoTime() - started) / 1_000 / ROUNDS;
+
+        started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            MessAggregateQuery.load(MESS_ID, MONTH, YEAR);
+        }
+        long aggregateMicros = (System.nanoTime() - started) / 1_000 / ROUNDS;
+
+        System.out.println("Mess stats per screen: aggregate " + aggregateMicros
+                + " us, per-metric calls " + perMetricMicros + " us");
+    }
+
+    // The per-metric round trips a screen used to make
+    private static double perMetric() {
+        List<Integer> hostelIds = MessUtils.getHostelIdsForMess(MESS_ID);
+        return MessUtils.getOperatingDays(MESS_ID, MONTH, YEAR)
+                + MessUtils.getTotalStudentCount(hostelIds)
+                + MessUtils.getActiveStudentCount(hostelIds)
+                + MessUtils.getTotalAbsentDays(hostelIds, MONTH, YEAR)
+                + MessUtils.getSetting("per_day_rate", 120.0)
+                + MessUtils.getSetting("gst_percent", 5.0)
+                + MessUtils.getFineAmount(MESS_ID, MONTH, YEAR);
+    }
+}
@@ -0,0 +1,97 @@
+package com.smvdu.mess.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.database.TestDatabase;
+import com.smvdu.mess.utils.MessUtils;
+
+class MessMonthRollupTest {
+
+    private static final int MESS_ID = 2;   // Vindhyachal Hostel Mess: hostel 3
+    private static final int HOSTEL_ID = 3;
+    private static final int NEW_HOSTEL_ID = 100;
+    private static final int MONTH = 6;
+    private static final int YEAR = 2025;
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        TestDatabase.initialize();
+
+        addStudent("24ROLL01", HOSTEL_ID, 3);
+        // Left behind by a deleted hostel whose id is about to be reused
+        addStudent("24ROLL02", NEW_HOSTEL_ID, 5);
+    }
+
+    @Test
+    void addingAndRemovingAHostelRebuildsItsMess() throws SQLException {
+        assertMatchesMessUtils(3);
+
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            PreparedStatement ps = conn.prepare(
+                "INSERT INTO hostels (id, name, code, mess_name, mess_id) VALUES (?, 'Rollup Hostel', 'RH', 'Vindhyachal Hostel Mess', ?)");
+            ps.setInt(1, NEW_HOSTEL_ID);
+            ps.setInt(2, MESS_ID);
+            ps.executeUpdate();
+        }
+        assertMatchesMessUtils(8);
+
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            PreparedStatement ps = conn.prepare("DELETE FROM hostels WHERE id = ?");
+            ps.setInt(1, NEW_HOSTEL_ID);
+            ps.executeUpdate();
+        }
+        assertMatchesMessUtils(3);
+    }
+
+    private static void assertMatchesMessUtils(int absentDays) throws SQLException {
+        MessStats stats = MessAggregateQuery.load(MESS_ID, MONTH, YEAR);
+        List<Integer> hostelIds = MessUtils.getHostelIdsForMess(MESS_ID);
+
+        assertEquals(MessUtils.getTotalStudentCount(hostelIds), stats.getTotalStudents());
+        assertEquals(MessUtils.getActiveStudentCount(hostelIds), stats.getActiveStudents());
+        assertEquals(MessUtils.getTotalAbsentDays(hostelIds, MONTH, YEAR), stats.getTotalAbsentDays());
+        assertEquals(absentDays, stats.getTotalAbsentDays());
+    }
+
+    private static void addStudent(String entry, int hostelId, int absentDays) throws SQLException {
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement student = conn.prepare(
+                    "INSERT INTO students (entry_number, name, hostel_id) VALUES (?, 'Rollup', ?)");
+                student.setString(1, entry);
+                student.setInt(2, hostelId);
+                student.executeUpdate();
+
+                PreparedStatement attendance = conn.prepare(AttendanceImportService.UPSERT_SQL);
+                try (ResultSet rs = conn.prepare("SELECT last_insert_rowid()").executeQuery()) {
+                    attendance.setInt(1, rs.getInt(1));
+                }
+                attendance.setInt(2, MONTH);
+                attendance.setInt(3, YEAR);
+                attendance.setInt(4, 30);
+                attendance.setInt(5, 30 - absentDays);
+                attendance.setInt(6, absentDays);
+                attendance.executeUpdate();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+}
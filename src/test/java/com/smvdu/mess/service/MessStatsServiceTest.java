@@ -0,0 +1,80 @@
+package com.smvdu.mess.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.database.TestDatabase;
+
+class MessStatsServiceTest {
+
+    private static final int MESS_ID = 3;   // Basohli Hostel Mess: hostel 4
+    private static final int YEAR = 2025;
+
+    private static int studentId;
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        TestDatabase.initialize();
+
+        try (PooledConnection conn = DatabaseConnection.write()) {
+            conn.prepare("INSERT INTO students (entry_number, name, hostel_id) VALUES ('23STAT01', 'Stats', 4)")
+                .executeUpdate();
+            try (ResultSet rs = conn.prepare("SELECT last_insert_rowid()").executeQuery()) {
+                studentId = rs.getInt(1);
+            }
+        }
+    }
+
+    @Test
+    void queuedEditForTheMonthIsCounted() throws SQLException {
+        AttendanceWriteQueue.submit(MESS_ID, studentId, 5, YEAR, 31, 27, 4);
+
+        assertEquals(4, MessStatsService.getStats(MESS_ID, 5, YEAR).getTotalAbsentDays());
+        assertEquals(0, AttendanceWriteQueue.pendingCount());
+    }
+
+    @Test
+    void readsDoNotWaitForTheWriterWhenNothingIsQueuedForTheMonth() throws Exception {
+        AttendanceWriteQueue.submit(MESS_ID, studentId, 7, YEAR, 31, 31, 0); // Another month
+
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            try (PooledConnection conn = DatabaseConnection.write()) {
+                held.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writer.start();
+        held.await();
+
+        try {
+            MessStats stats = CompletableFuture
+                    .supplyAsync(() -> {
+                        try {
+                            return MessStatsService.getStats(MESS_ID, 6, YEAR);
+                        } catch (SQLException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    })
+                    .get(2, TimeUnit.SECONDS);
+            assertEquals(1, stats.getActiveStudents());
+        } finally {
+            release.countDown();
+            writer.join();
+            AttendanceWriteQueue.flushNow();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.smvdu.mess.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.database.TestDatabase;
+
+/**
+ * The hot student and attendance queries must be served by the schema v1
+ * indexes (idx_students_hostel_active, idx_hostels_mess,
+ * idx_attendance_period) or a unique key, never by a full table scan.
+ * EXPLAIN QUERY PLAN names a table by its alias when it has one, so each
+ * check lists both.
+ */
+class QueryPlanTest {
+
+    @BeforeAll
+    static void migrate() {
+        TestDatabase.initialize();
+    }
+
+    @Test
+    void studentPageSearchesStudentsAndAttendance() throws SQLException {
+        assertNoScan(StudentPageQuery.PAGE_SQL, "students", "s", "student_attendance", "sa");
+    }
+
+    @Test
+    void activeCountSearchesStudents() throws SQLException {
+        assertNoScan(StudentPageQuery.COUNT_ACTIVE_SQL, "students");
+    }
+
+    @Test
+    void attendanceLookupSearchesStudents() throws SQLException {
+        assertNoScan(AttendanceImportService.lookupSql(3), "students");
+    }
+
+    @Test
+    void messAggregateSearchesOnly() throws SQLException {
+        assertNoScan(MessAggregateQuery.MESS_STATS_SQL,
+                "students", "student_attendance", "hostels", "h", "mess_month_rollup", "a", "r");
+    }
+
+    @Test
+    void allMessAggregateSearchesOnly() throws SQLException {
+        assertNoScan(MessAggregateQuery.ALL_MESS_STATS_SQL,
+                "students", "student_attendance", "hostels", "h", "mess_month_rollup", "a", "r");
+    }
+
+    private static void assertNoScan(String sql, String... tables) throws SQLException {
+        Pattern scan = Pattern.compile("^SCAN (" + String.join("|", tables) + ")\\b");
+
+        for (String row : plan(sql)) {
+            assertFalse(scan.matcher(row).find(), () -> "Full scan '" + row + "' in plan for:\n" + sql);
+        }
+    }
+
+    private static List<String> plan(String sql) throws SQLException {
+        List<String> rows = new ArrayList<>();
+
+        try (PooledConnection conn = DatabaseConnection.read();
+             PreparedStatement ps = conn.getConnection().prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            // Values don't change the plan, only their presence does
+            int params = ps.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= params; i++) {
+                ps.setInt(i, 1);
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(rs.getString("detail"));
+                }
+            }
+        }
+
+        assertFalse(rows.isEmpty(), () -> "No plan for:\n" + sql);
+        return rows;
+    }
+}
@@ -0,0 +1,120 @@
+package com.smvdu.mess.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.smvdu.mess.database.DatabaseConnection;
+import com.smvdu.mess.database.PooledConnection;
+import com.smvdu.mess.database.TestDatabase;
+import com.smvdu.mess.service.StudentImportService.StudentRow;
+import com.smvdu.mess.utils.CsvReader;
+
+class StudentImportServiceTest {
+
+    private static final int HOSTEL_ID = 2;
+
+    private static final int LARGE_HOSTEL_ID = 6;
+    private static final int LARGE_ROWS = 50_000;
+
+    @BeforeAll
+    static void migrate() {
+        TestDatabase.initialize();
+    }
+
+    @Test
+    void reimportReplacesStudentWhoseEntryDiffersOnlyInCase() throws SQLException {
+        importRows(new StudentRow(2, "22CASE01", "First Name", "101", "", ""));
+        importRows(new StudentRow(2, "22case01", "Second Name", "102", "", ""));
+
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare(
+                "SELECT COUNT(*), MAX(name) FROM students WHERE entry_number = ? COLLATE NOCASE");
+            ps.setString(1, "22CASE01");
+
+            try (ResultSet rs = ps.executeQuery()) {
+                assertEquals(1, rs.getInt(1));
+                assertEquals("Second Name", rs.getString(2));
+            }
+        }
+    }
+
+    @Test
+    void closingWithoutFinishLeavesNothingStaged() throws SQLException {
+        try (StudentImportService importer = new StudentImportService(HOSTEL_ID, 1, line -> { })) {
+            importer.add(new StudentRow(2, "22DROP01", "Dropped", "", "", ""));
+        }
+
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            try (ResultSet rs = conn.prepare("SELECT COUNT(*) FROM student_import_staging").executeQuery()) {
+                assertEquals(0, rs.getInt(1));
+            }
+            try (ResultSet rs = conn.prepare(
+                    "SELECT COUNT(*) FROM students WHERE entry_number = '22DROP01'").executeQuery()) {
+                assertEquals(0, rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    void imports50kRowCsvInOneTransaction(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("students.csv");
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("Entry Number,Name,Room,Phone,Email\r\n");
+            for (int i = 0; i < LARGE_ROWS; i++) {
+                out.write(String.format("24BUL%06d,\"Student, %d\",R-%d,98%08d,s%d@example.com\r\n",
+                                        i, i, i % 400, i, i));
+            }
+        }
+
+        // Same path as ImportController: CsvReader rows fed to the batched importer
+        long started = System.nanoTime();
+        int imported = assertTimeout(Duration.ofSeconds(60), () -> importCsv(file));
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        System.out.println("Imported " + imported + " students in " + millis + " ms");
+
+        assertEquals(LARGE_ROWS, imported);
+        try (PooledConnection conn = DatabaseConnection.read()) {
+            PreparedStatement ps = conn.prepare("SELECT COUNT(*) FROM students WHERE hostel_id = ?");
+            ps.setInt(1, LARGE_HOSTEL_ID);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertEquals(LARGE_ROWS, rs.getInt(1));
+            }
+        }
+    }
+
+    private static int importCsv(Path file) throws IOException, SQLException {
+        try (CsvReader csv = new CsvReader(file);
+             StudentImportService importer = new StudentImportService(
+                     LARGE_HOSTEL_ID, StudentImportService.DEFAULT_BATCH_SIZE, line -> { })) {
+            csv.next(); // Header
+            while (csv.next()) {
+                importer.add(new StudentRow(csv.lineNumber(), csv.get(0), csv.get(1),
+                                            csv.get(2), csv.get(3), csv.get(4)));
+            }
+            importer.finish();
+            return importer.getImported();
+        }
+    }
+
+    private static void importRows(StudentRow... rows) throws SQLException {
+        try (StudentImportService importer = new StudentImportService(HOSTEL_ID, 500, line -> { })) {
+            for (StudentRow row : rows) {
+                importer.add(row);
+            }
+            importer.finish();
+        }
+    }
+}
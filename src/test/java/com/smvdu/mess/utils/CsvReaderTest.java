@@ -0,0 +1,115 @@
+package com.smvdu.mess.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CsvReaderTest {
+
+    private static final int LARGE_LINES = 100_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsQuotesEscapesCrlfAndBom() throws IOException {
+        Path file = write("\uFEFFEntry,Name,Room\r\n"
+                + "21BCS001,\"Sharma, Anil\",  A-12 \r\n"
+                + "21BCS002,\"Ravi \"\"RK\"\" Kumar\",\r\n"
+                + "21BCS003,\"Two\nLines\",B-3\n"
+                + "21BCS004\n");
+
+        try (CsvReader csv = new CsvReader(file)) {
+            assertTrue(csv.next());
+            assertEquals("Entry", csv.get(0)); // BOM skipped
+
+            assertTrue(csv.next());
+            assertEquals("Sharma, Anil", csv.get(1));
+            assertEquals("A-12", csv.get(2));
+            assertEquals(2, csv.lineNumber());
+
+            assertTrue(csv.next());
+            assertEquals("Ravi \"RK\" Kumar", csv.get(1));
+            assertTrue(csv.isBlank(2));
+            assertEquals(3, csv.fieldCount());
+
+            assertTrue(csv.next());
+            assertEquals("Two\nLines", csv.get(1));
+            assertEquals(4, csv.lineNumber());
+
+            assertTrue(csv.next());
+            assertEquals(6, csv.lineNumber()); // After the line break inside quotes
+            assertEquals(1, csv.fieldCount());
+            assertEquals("", csv.get(3));
+
+            assertFalse(csv.next());
+        }
+    }
+
+    @Test
+    void lastRecordWithoutLineBreak() throws IOException {
+        try (CsvReader csv = new CsvReader(write("a,b\nc,d"))) {
+            assertTrue(csv.next());
+            assertTrue(csv.next());
+            assertEquals("d", csv.get(1));
+            assertFalse(csv.next());
+        }
+    }
+
+    @Test
+    void parses100kLinesAgainstSplitLoop() throws IOException {
+        Path file = dir.resolve("large.csv");
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < LARGE_LINES; i++) {
+                out.write("21BCS" + i + ",Student " + i + ",R-" + (i % 400) + ",98" + i + ",s" + i + "@smvdu.ac.in\r\n");
+            }
+        }
+
+        // The loop this reader replaced, as a reference point
+        long started = System.nanoTime();
+        int splitRecords = 0;
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (!fields[0].trim().isEmpty()) splitRecords++;
+            }
+        }
+        long splitMillis = (System.nanoTime() - started) / 1_000_000;
+
+        started = System.nanoTime();
+        int records = assertTimeout(Duration.ofSeconds(30), () -> {
+            int count = 0;
+            try (CsvReader csv = new CsvReader(file)) {
+                while (csv.next()) {
+                    if (!csv.isBlank(0)) count++;
+                }
+            }
+            return count;
+        });
+        long csvMillis = (System.nanoTime() - started) / 1_000_000;
+
+        System.out.println("Parsed " + LARGE_LINES + " lines: CsvReader " + csvMillis
+                + " ms, split loop " + splitMillis + " ms");
+        assertEquals(LARGE_LINES, records);
+        assertEquals(splitRecords, records);
+    }
+
+    private Path write(String text) throws IOException {
+        Path file = dir.resolve("test.csv");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,110 @@
+package com.smvdu.mess.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.smvdu.mess.models.Bill;
+import com.smvdu.mess.models.StudentRecord;
+
+class PdfRenderContextTest {
+
+    private static final int THREADS = 4;
+    private static final int DOCUMENTS_PER_THREAD = 10;
+    private static final int REPORT_STUDENTS = 300;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void eachDocumentGetsItsOwnFonts() {
+        PdfRenderContext first = PdfRenderContext.create();
+        PdfRenderContext second = PdfRenderContext.create();
+
+        assertSame(first.bold(), first.bold());
+        assertNotSame(first.bold(), second.bold()); // A PdfFont belongs to one document
+    }
+
+    @Test
+    void rendersBillsAndReportsConcurrently() throws Exception {
+        List<StudentRecord> students = new ArrayList<>();
+        for (int i = 0; i < REPORT_STUDENTS; i++) {
+            students.add(new StudentRecord(i + 1, String.format("24PDF%03d", i), "Student " + i, 1,
+                                           "R-" + i, "", "", true, 31 - i % 3, i % 3));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Callable<List<Path>>> work = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            work.add(() -> {
+                List<Path> files = new ArrayList<>();
+                for (int d = 0; d < DOCUMENTS_PER_THREAD; d++) {
+                    Path file = dir.resolve("doc-" + thread + "-" + d + ".pdf");
+                    if (d % 2 == 0) {
+                        BillPDFGenerator.generateBillPDF(file.toString(), bill("Mess " + thread + "-" + d), "Caretaker");
+                    } else {
+                        StudentReportPDFGenerator.generateStudentReport(file.toString(), "SMVDU",
+                                "Mess " + thread + "-" + d, "ALL", students, 31, LocalDate.of(2025, 3, 31));
+                    }
+                    files.add(file);
+                }
+                return files;
+            });
+        }
+
+        long started = System.nanoTime();
+        List<Path> files = new ArrayList<>();
+        for (Future<List<Path>> done : pool.invokeAll(work, 120, TimeUnit.SECONDS)) {
+            files.addAll(done.get());
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        pool.shutdown();
+
+        System.out.println(files.size() + " PDFs on " + THREADS + " threads in " + millis + " ms ("
+                + (millis * THREADS / files.size()) + " ms per document per thread)");
+
+        assertEquals(THREADS * DOCUMENTS_PER_THREAD, files.size());
+        for (Path file : files) {
+            String name = file.getFileName().toString().replace("doc-", "Mess ").replace(".pdf", "");
+            try (PdfDocument pdf = new PdfDocument(new PdfReader(file.toString()))) {
+                assertTrue(pdf.getNumberOfPages() >= 1);
+                assertTrue(PdfTextExtractor.getTextFromPage(pdf.getFirstPage()).contains(name), file::toString);
+            }
+        }
+    }
+
+    private static Bill bill(String messName) {
+        return Bill.builder(1, 3, 2025)
+                .printedAs(messName, "CM", LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31))
+                .totalStudents(100)
+                .operatingDays(31)
+                .totalStudentDays(3100)
+                .totalAbsentDays(100)
+                .totalMessDays(3000)
+                .perDayRate(new BigDecimal("120"))
+                .subtotal(new BigDecimal("360000.00"))
+                .gstPercent(new BigDecimal("5"))
+                .gstAmount(new BigDecimal("18000.00"))
+                .totalAmount(new BigDecimal("378000.00"))
+                .build();
+    }
+}